@@ -0,0 +1,6 @@
+@echo off
+rem Starts the LMS client from the runtime image (mvn -Pruntime-image package).
+rem Runs from the image directory so the module path matches the one the CDS
+rem archive was recorded with; a missing or stale archive is ignored by the JVM.
+cd /d "%~dp0.."
+bin\java -XX:SharedArchiveFile=lib\lms.jsa -Xshare:auto --module-path app --module com.lms.app/com.lms.app.Main %*
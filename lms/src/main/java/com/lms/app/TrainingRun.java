@@ -0,0 +1,149 @@
+package com.lms.app;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.TextInputControl;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+import com.lms.app.util.DatabaseConnection;
+import com.lms.app.util.DbExecutor;
+import com.lms.app.util.FileCache;
+import com.lms.app.util.StartupOrchestrator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Training Run for the Class Data Sharing archive.
+ *
+ * Purpose:
+ * - Started by the `runtime-image` Maven profile with
+ * `-XX:ArchiveClassesAtExit`, so every class it loads ends up in the AppCDS
+ * archive the lab launcher maps at start-up.
+ * - Drives the real UI: signs in through `LoginView.fxml`, opens every sidebar
+ * view, opens a course in the Course Viewer (students) and signs out, once per
+ * account in `lms.training.accounts`.
+ * - Needs the database from `config.properties`. Exits with status 1 if the
+ * run does not finish within `lms.training.timeoutSeconds`.
+ */
+public class TrainingRun extends Application {
+
+    private static final String DEFAULT_ACCOUNTS = "admin:admin123,instructor:inst123,student:stud123";
+    private static final Duration STEP_DELAY = Duration.seconds(1.5);
+
+    private final StartupOrchestrator startup = new StartupOrchestrator();
+    private final Deque<Runnable> steps = new ArrayDeque<>();
+    private Stage stage;
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void init() {
+        startup.begin();
+    }
+
+    @Override
+    public void start(Stage primaryStage) throws Exception {
+        stage = primaryStage;
+        Parent root = FXMLLoader.load(getClass().getResource("/com/lms/app/LoginView.fxml"));
+        Scene scene = new Scene(root, 600, 400);
+        scene.getStylesheets().add(getClass().getResource("/styles.css").toExternalForm());
+        stage.setScene(scene);
+        stage.show();
+        startup.loginShown();
+
+        for (String account : System.getProperty("lms.training.accounts", DEFAULT_ACCOUNTS).split(",")) {
+            String[] credentials = account.trim().split(":", 2);
+            if (credentials.length == 2)
+                planSession(credentials[0], credentials[1]);
+        }
+        steps.add(Platform::exit);
+
+        startWatchdog(Integer.getInteger("lms.training.timeoutSeconds", 180));
+        nextStep();
+    }
+
+    @Override
+    public void stop() {
+        DbExecutor.shutdown();
+        FileCache.clear();
+        DatabaseConnection.shutdown();
+    }
+
+    /**
+     * Queues sign-in, a visit to every sidebar view, and sign-out for one account.
+     */
+    private void planSession(String username, String password) {
+        steps.add(() -> {
+            Parent root = stage.getScene().getRoot();
+            ((TextInputControl) root.lookup("#usernameField")).setText(username);
+            ((TextInputControl) root.lookup("#passwordField")).setText(password);
+            findButton("Sign In").ifPresent(Button::fire);
+        });
+        steps.add(() -> {
+            List<Button> navButtons = new ArrayList<>();
+            for (Node node : stage.getScene().getRoot().lookupAll(".button")) {
+                if (node instanceof Button button && !"Logout".equals(button.getText()))
+                    navButtons.add(button);
+            }
+            // Pushed to the front in reverse, so they run in sidebar order
+            steps.addFirst(() -> findButton("Logout").ifPresent(Button::fire));
+            for (int i = navButtons.size() - 1; i >= 0; i--) {
+                Button button = navButtons.get(i);
+                steps.addFirst(this::closeOtherWindows);
+                steps.addFirst(() -> findButton("Open Course").ifPresent(Button::fire));
+                steps.addFirst(button::fire);
+            }
+        });
+    }
+
+    private void nextStep() {
+        Runnable step = steps.pollFirst();
+        if (step == null)
+            return;
+        step.run();
+        PauseTransition pause = new PauseTransition(STEP_DELAY);
+        pause.setOnFinished(e -> nextStep());
+        pause.play();
+    }
+
+    private Optional<Button> findButton(String text) {
+        return stage.getScene().getRoot().lookupAll(".button").stream()
+                .filter(node -> node instanceof Button button && text.equals(button.getText()))
+                .map(Button.class::cast)
+                .findFirst();
+    }
+
+    private void closeOtherWindows() {
+        for (Window window : new ArrayList<>(Window.getWindows())) {
+            if (window != stage)
+                window.hide();
+        }
+    }
+
+    private static void startWatchdog(int timeoutSeconds) {
+        Thread watchdog = new Thread(() -> {
+            try {
+                Thread.sleep(timeoutSeconds * 1000L);
+                System.err.println("Training run did not finish within " + timeoutSeconds + " s.");
+                System.exit(1);
+            } catch (InterruptedException e) {
+                // Not reached; the thread is a daemon
+            }
+        }, "lms-training-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+}
@@ -1,7 +1,16 @@
 package com.lms.app.controller;
 
+import com.lms.app.dao.ReferenceDataDao;
+import com.lms.app.dao.StoredFileDao;
+import com.lms.app.model.AcademicYearItem;
+import com.lms.app.model.DepartmentItem;
+import com.lms.app.model.StorageStats;
 import com.lms.app.util.AlertHelper;
-import com.lms.app.util.DatabaseConnection;
+import com.lms.app.util.DbExecutor;
+import com.lms.app.util.FileHandler;
+import com.lms.app.util.FileStore;
+import com.lms.app.util.FxAsync;
+import com.lms.app.util.Refreshable;
 
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -10,8 +19,6 @@ import javafx.scene.layout.HBox;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
-import java.sql.*;
-
 /**
  * AdminSettings Controller.
  * 
@@ -20,8 +27,10 @@ import java.sql.*;
  * - Manages Department creation and updates (`departments` table).
  * - Manages Academic Year scheduling (`academic_years` table).
  * - Provides tables to view and edit these settings.
+ * - Shows file store usage and the space saved by sharing identical uploads,
+ * and removes stored files nothing refers to any more.
  */
-public class AdminSettingsController {
+public class AdminSettingsController implements Refreshable {
 
     @FXML
     private TextField deptNameField;
@@ -37,6 +46,19 @@ public class AdminSettingsController {
     @FXML
     private TableView<AcademicYear> yearsTable;
 
+    @FXML
+    private Label storageModeLbl;
+    @FXML
+    private Label storageFilesLbl;
+    @FXML
+    private Label storageSavedLbl;
+    @FXML
+    private Label storageUnusedLbl;
+    @FXML
+    private Button cleanUpBtn;
+    @FXML
+    private ProgressIndicator storageProgress;
+
     private ObservableList<Department> departmentsList = FXCollections.observableArrayList();
     private ObservableList<AcademicYear> yearsList = FXCollections.observableArrayList();
 
@@ -44,8 +66,13 @@ public class AdminSettingsController {
     public void initialize() {
         setupDepartmentsTable();
         setupYearsTable();
+    }
+
+    @Override
+    public void refresh() {
         loadDepartments();
         loadAcademicYears();
+        loadStorageStats();
     }
 
     private void setupDepartmentsTable() {
@@ -150,27 +177,20 @@ public class AdminSettingsController {
             return;
         }
 
-        String sql = "INSERT INTO departments (name, description) VALUES (?, ?)";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, name);
-            stmt.setString(2, description.isEmpty() ? null : description);
-            stmt.executeUpdate();
-
-            AlertHelper.showSuccess("Success", "Department added successfully");
-            deptNameField.clear();
-            deptDescField.clear();
-            loadDepartments();
-
-        } catch (SQLException e) {
-            if (e.getMessage().contains("Duplicate")) {
-                AlertHelper.showError("Error", "Department already exists");
-            } else {
-                e.printStackTrace();
-                AlertHelper.showError("Error", "Failed to add department");
-            }
-        }
+        FxAsync.load(DbExecutor.run(() -> ReferenceDataDao.addDepartment(name,
+                description.isEmpty() ? null : description)), null, v -> {
+                    AlertHelper.showSuccess("Success", "Department added successfully");
+                    deptNameField.clear();
+                    deptDescField.clear();
+                    loadDepartments();
+                }, e -> {
+                    if (isDuplicate(e)) {
+                        AlertHelper.showError("Error", "Department already exists");
+                    } else {
+                        e.printStackTrace();
+                        AlertHelper.showError("Error", "Failed to add department");
+                    }
+                });
     }
 
     private void deleteDepartment(int id) {
@@ -179,20 +199,13 @@ public class AdminSettingsController {
             return;
         }
 
-        String sql = "DELETE FROM departments WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
-
+        FxAsync.load(DbExecutor.run(() -> ReferenceDataDao.deleteDepartment(id)), null, v -> {
             AlertHelper.showSuccess("Success", "Department deleted");
             loadDepartments();
-
-        } catch (SQLException e) {
+        }, e -> {
             e.printStackTrace();
             AlertHelper.showError("Error", "Failed to delete department");
-        }
+        });
     }
 
     @FXML
@@ -205,101 +218,100 @@ public class AdminSettingsController {
             return;
         }
 
-        String sql = "INSERT INTO academic_years (year_name, is_active) VALUES (?, ?)";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, yearName);
-            stmt.setBoolean(2, isActive);
-            stmt.executeUpdate();
-
+        FxAsync.load(DbExecutor.run(() -> ReferenceDataDao.addAcademicYear(yearName, isActive)), null, v -> {
             AlertHelper.showSuccess("Success", "Academic year added");
             yearNameField.clear();
             yearActiveCheck.setSelected(true);
             loadAcademicYears();
-
-        } catch (SQLException e) {
-            if (e.getMessage().contains("Duplicate")) {
+        }, e -> {
+            if (isDuplicate(e)) {
                 AlertHelper.showError("Error", "Academic year already exists");
             } else {
                 e.printStackTrace();
                 AlertHelper.showError("Error", "Failed to add academic year");
             }
-        }
+        });
     }
 
     private void toggleYearStatus(int id, boolean newStatus) {
-        String sql = "UPDATE academic_years SET is_active = ? WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setBoolean(1, newStatus);
-            stmt.setInt(2, id);
-            stmt.executeUpdate();
-
-            loadAcademicYears();
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            AlertHelper.showError("Error", "Failed to update status");
-        }
+        FxAsync.load(DbExecutor.run(() -> ReferenceDataDao.setAcademicYearActive(id, newStatus)), null,
+                v -> loadAcademicYears(), e -> {
+                    e.printStackTrace();
+                    AlertHelper.showError("Error", "Failed to update status");
+                });
     }
 
     private void deleteAcademicYear(int id) {
-        String sql = "DELETE FROM academic_years WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, id);
-            stmt.executeUpdate();
-
+        FxAsync.load(DbExecutor.run(() -> ReferenceDataDao.deleteAcademicYear(id)), null, v -> {
             AlertHelper.showSuccess("Success", "Academic year deleted");
             loadAcademicYears();
-
-        } catch (SQLException e) {
+        }, e -> {
             e.printStackTrace();
             AlertHelper.showError("Error", "Failed to delete academic year");
-        }
+        });
+    }
+
+    private static boolean isDuplicate(Throwable e) {
+        return e.getMessage() != null && e.getMessage().contains("Duplicate");
     }
 
     private void loadDepartments() {
-        departmentsList.clear();
-        String sql = "SELECT * FROM departments ORDER BY id";
-
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                departmentsList.add(new Department(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("description")));
+        FxAsync.loadInto(departmentsTable, DbExecutor.supply(ReferenceDataDao::getDepartments), departments -> {
+            departmentsList.clear();
+            for (DepartmentItem dept : departments) {
+                departmentsList.add(new Department(dept.getId(), dept.getName(), dept.getDescription()));
             }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        });
     }
 
     private void loadAcademicYears() {
-        yearsList.clear();
-        String sql = "SELECT * FROM academic_years ORDER BY id DESC";
-
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                yearsList.add(new AcademicYear(
-                        rs.getInt("id"),
-                        rs.getString("year_name"),
-                        rs.getBoolean("is_active")));
+        FxAsync.loadInto(yearsTable, DbExecutor.supply(ReferenceDataDao::getAcademicYears), years -> {
+            yearsList.clear();
+            // Newest first
+            for (AcademicYearItem year : years.reversed()) {
+                yearsList.add(new AcademicYear(year.getId(), year.getYearName(), year.isActive()));
             }
+        });
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+    @FXML
+    private void loadStorageStats() {
+        FileStore store = FileHandler.getFileStore();
+        storageModeLbl.setText(store != null
+                ? "Uploads are stored in the shared file store; identical files are kept once."
+                : "Uploads are stored in the database (storage.type=database).");
+        cleanUpBtn.setDisable(store == null);
+
+        FxAsync.load(DbExecutor.supply(StoredFileDao::getStats), storageProgress, this::showStorageStats);
+    }
+
+    private void showStorageStats(StorageStats stats) {
+        storageFilesLbl.setText(stats.getFiles() + " stored files used by " + stats.getReferences()
+                + " uploads, " + FileHandler.formatSize(stats.getStoredBytes()) + " on disk");
+        storageSavedLbl.setText("Saved by sharing identical files: " + FileHandler.formatSize(stats.getBytesSaved())
+                + " (" + FileHandler.formatSize(stats.getLogicalBytes()) + " without sharing)");
+        storageUnusedLbl.setText(stats.getUnreferencedFiles() + " files no longer used");
+    }
+
+    @FXML
+    private void cleanUpStorage() {
+        FileStore store = FileHandler.getFileStore();
+        if (store == null)
+            return;
+        if (!AlertHelper.showConfirmation("Remove Unused Files",
+                "Delete stored files that no course, assignment, submission or profile uses any more?"))
+            return;
+
+        cleanUpBtn.setDisable(true);
+        FxAsync.load(DbExecutor.supply(() -> StoredFileDao.collectGarbage(store)), storageProgress, removed -> {
+            cleanUpBtn.setDisable(false);
+            AlertHelper.showSuccess("Success", "Removed " + removed + " unused files.");
+            loadStorageStats();
+        }, error -> {
+            cleanUpBtn.setDisable(false);
+            error.printStackTrace();
+            AlertHelper.showError("Error", "Failed to remove unused files");
+        });
     }
 
     // Inner classes for data models
@@ -1,11 +1,16 @@
 package com.lms.app.controller;
 
+import com.lms.app.dao.CourseDao;
+import com.lms.app.dao.DeletionDao;
+import com.lms.app.dao.ReferenceDataDao;
 import com.lms.app.model.Course;
 import com.lms.app.model.DepartmentItem;
 import com.lms.app.model.AcademicYearItem;
 import com.lms.app.util.UserSession;
-import com.lms.app.util.DatabaseConnection;
 import com.lms.app.util.FileHandler;
+import com.lms.app.util.DbExecutor;
+import com.lms.app.util.FxAsync;
+import com.lms.app.util.Refreshable;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -20,7 +25,6 @@ import javafx.stage.Stage;
 
 import java.io.File;
 import java.io.IOException;
-import java.sql.*;
 
 /**
  * CourseManager Controller.
@@ -32,7 +36,7 @@ import java.sql.*;
  * - Displays a list of courses owned by the current instructor.
  * - Provides access to "Delete" functionality.
  */
-public class CourseManagerController {
+public class CourseManagerController implements Refreshable {
 
     @FXML
     private TableView<Course> courseTable;
@@ -51,17 +55,16 @@ public class CourseManagerController {
     private ComboBox<DepartmentItem> departmentComboBox;
     @FXML
     private ComboBox<AcademicYearItem> academicYearComboBox;
+    @FXML
+    private ProgressBar deleteProgress;
 
     private File selectedImageFile;
+    private boolean addingCourse;
 
     public void initialize() {
         titleCol.setCellValueFactory(new PropertyValueFactory<>("title"));
         descCol.setCellValueFactory(new PropertyValueFactory<>("description"));
 
-        loadDepartments();
-        loadAcademicYears();
-        loadCourses();
-
         // Context Menu
         ContextMenu contextMenu = new ContextMenu();
         MenuItem manageModulesItem = new MenuItem("Manage Modules");
@@ -70,27 +73,17 @@ public class CourseManagerController {
         courseTable.setContextMenu(contextMenu);
     }
 
+    @Override
+    public void refresh() {
+        loadDepartments();
+        loadAcademicYears();
+        loadCourses();
+    }
+
     private void loadCourses() {
-        ObservableList<Course> list = FXCollections.observableArrayList();
         int userId = UserSession.getInstance().getUserId();
-        String sql = "SELECT * FROM courses WHERE instructor_id = ?";
-
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                list.add(new Course(
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getString("description"),
-                        rs.getInt("instructor_id"),
-                        rs.getBytes("course_image")));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        courseTable.setItems(list);
+        FxAsync.loadInto(courseTable, DbExecutor.supply(() -> CourseDao.findByInstructor(userId)),
+                courses -> courseTable.setItems(FXCollections.observableArrayList(courses)));
     }
 
     public void chooseImage() {
@@ -109,29 +102,23 @@ public class CourseManagerController {
         int departmentId = (departmentComboBox.getValue() != null) ? departmentComboBox.getValue().getId() : 1;
         int academicYearId = (academicYearComboBox.getValue() != null) ? academicYearComboBox.getValue().getId() : 1;
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
-            String sql = "INSERT INTO courses (title, description, instructor_id, course_image, department_id, academic_year_id) VALUES (?, ?, ?, ?, ?, ?)";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, title);
-                stmt.setString(2, desc);
-                stmt.setInt(3, UserSession.getInstance().getUserId());
-
-                if (selectedImageFile != null) {
-                    stmt.setBytes(4, FileHandler.readFileToBytes(selectedImageFile));
-                } else {
-                    stmt.setBytes(4, null);
-                }
-
-                stmt.setInt(5, departmentId);
-                stmt.setInt(6, academicYearId);
+        if (addingCourse)
+            return;
+        addingCourse = true;
 
-                stmt.executeUpdate();
-                loadCourses();
-                clearForm();
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        int instructorId = UserSession.getInstance().getUserId();
+        File coverImage = selectedImageFile;
+        FxAsync.load(DbExecutor.run(() -> CourseDao.insert(title, desc, instructorId, coverImage, departmentId,
+                academicYearId)), null, v -> {
+                    addingCourse = false;
+                    loadCourses();
+                    clearForm();
+                }, e -> {
+                    addingCourse = false;
+                    e.printStackTrace();
+                    Alert err = new Alert(Alert.AlertType.ERROR, "Could not add course: " + e.getMessage());
+                    err.show();
+                });
     }
 
     private void clearForm() {
@@ -154,72 +141,17 @@ public class CourseManagerController {
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION,
                 "Delete course '" + selected.getTitle() + "' and all its content?", ButtonType.YES, ButtonType.NO);
         if (confirm.showAndWait().orElse(ButtonType.NO) == ButtonType.YES) {
-            try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
-                conn.setAutoCommit(false);
-                try {
-                    // Manual Cascade: Course -> Modules -> Assignments -> Submissions
-
-                    // 1. Get Modules
-                    String modSql = "SELECT id FROM modules WHERE course_id = ?";
-                    try (PreparedStatement modStmt = conn.prepareStatement(modSql)) {
-                        modStmt.setInt(1, selected.getId());
-                        ResultSet modRs = modStmt.executeQuery();
-                        while (modRs.next()) {
-                            int modId = modRs.getInt("id");
-
-                            // 2. Get Assignments for Module
-                            String assSql = "SELECT id FROM assignments WHERE module_id = ?";
-                            try (PreparedStatement assStmt = conn.prepareStatement(assSql)) {
-                                assStmt.setInt(1, modId);
-                                ResultSet assRs = assStmt.executeQuery();
-                                while (assRs.next()) {
-                                    int assId = assRs.getInt("id");
-
-                                    // 3. Delete Submissions for Assignment
-                                    try (PreparedStatement subDel = conn
-                                            .prepareStatement("DELETE FROM submissions WHERE assignment_id = ?")) {
-                                        subDel.setInt(1, assId);
-                                        subDel.executeUpdate();
-                                    }
-                                }
-                            }
-                            // 4. Delete Assignments
-                            try (PreparedStatement assDel = conn
-                                    .prepareStatement("DELETE FROM assignments WHERE module_id = ?")) {
-                                assDel.setInt(1, modId);
-                                assDel.executeUpdate();
-                            }
-                        }
-                    }
-                    // 5. Delete Modules
-                    try (PreparedStatement modDel = conn.prepareStatement("DELETE FROM modules WHERE course_id = ?")) {
-                        modDel.setInt(1, selected.getId());
-                        modDel.executeUpdate();
-                    }
-
-                    // 6. Delete Course
-                    try (PreparedStatement courseDel = conn.prepareStatement("DELETE FROM courses WHERE id = ?")) {
-                        courseDel.setInt(1, selected.getId());
-                        courseDel.executeUpdate();
-                    }
-
-                    conn.commit();
-                    loadCourses();
-
-                    Alert success = new Alert(Alert.AlertType.INFORMATION, "Course deleted successfully.");
-                    success.show();
-
-                } catch (SQLException e) {
-                    conn.rollback();
-                    e.printStackTrace();
-                    Alert err = new Alert(Alert.AlertType.ERROR, "Error deleting course: " + e.getMessage());
-                    err.show();
-                } finally {
-                    conn.setAutoCommit(true);
-                }
-            } catch (SQLException e) {
+            int courseId = selected.getId();
+            FileHandler.ProgressListener progress = FxAsync.progressTo(deleteProgress);
+            FxAsync.load(DbExecutor.run(() -> DeletionDao.deleteCourse(courseId, progress)), deleteProgress, v -> {
+                loadCourses();
+                Alert success = new Alert(Alert.AlertType.INFORMATION, "Course deleted successfully.");
+                success.show();
+            }, e -> {
                 e.printStackTrace();
-            }
+                Alert err = new Alert(Alert.AlertType.ERROR, "Error deleting course: " + e.getMessage());
+                err.show();
+            });
         }
     }
 
@@ -247,46 +179,21 @@ public class CourseManagerController {
     }
 
     private void loadDepartments() {
-        departmentComboBox.getItems().clear();
-        String sql = "SELECT * FROM departments ORDER BY id";
-
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                departmentComboBox.getItems().add(
-                        new DepartmentItem(rs.getInt("id"), rs.getString("name")));
-            }
-
+        FxAsync.load(DbExecutor.supply(ReferenceDataDao::getDepartments), null, departments -> {
+            departmentComboBox.getItems().setAll(departments);
             if (!departmentComboBox.getItems().isEmpty()) {
                 departmentComboBox.getSelectionModel().select(0);
             }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        });
     }
 
     private void loadAcademicYears() {
-        academicYearComboBox.getItems().clear();
-        String sql = "SELECT * FROM academic_years WHERE is_active = TRUE ORDER BY id DESC";
-
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                academicYearComboBox.getItems().add(
-                        new AcademicYearItem(rs.getInt("id"), rs.getString("year_name")));
-            }
-
+        // Active years, newest first
+        FxAsync.load(DbExecutor.supply(() -> ReferenceDataDao.getActiveAcademicYears().reversed()), null, years -> {
+            academicYearComboBox.getItems().setAll(years);
             if (!academicYearComboBox.getItems().isEmpty()) {
                 academicYearComboBox.getSelectionModel().select(0);
             }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        });
     }
 }
@@ -1,5 +1,9 @@
 package com.lms.app.controller;
 
+import com.lms.app.dao.AssignmentDao;
+import com.lms.app.dao.CourseDao;
+import com.lms.app.dao.ModuleDao;
+import com.lms.app.dao.SubmissionDao;
 import com.lms.app.model.Module;
 import com.lms.app.model.*;
 import com.lms.app.util.*;
@@ -16,6 +20,11 @@ import java.io.IOException;
 import java.net.URL;
 import java.awt.Desktop;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * CourseViewer Controller.
@@ -38,6 +47,10 @@ public class CourseViewerController {
     private Button editModulesBtn;
     @FXML
     private VBox modulesContainer;
+    @FXML
+    private ProgressIndicator loadingIndicator;
+    @FXML
+    private ProgressBar uploadProgress;
 
     private Course course;
 
@@ -46,13 +59,11 @@ public class CourseViewerController {
         courseTitleLbl.setText(course.getTitle());
         loadInstructorName();
 
-        // Load course cover image if available
-        if (course.getCourseImage() != null) {
-            try {
-                courseImage.setImage(FileHandler.getImageFromBytes(course.getCourseImage()));
-            } catch (Exception e) {
-                System.err.println("Error loading course image: " + e.getMessage());
-            }
+        // Load course cover image if available (decoded in the background)
+        if (course.getCourseThumb() != null) {
+            double height = courseImage.getFitHeight();
+            FxAsync.load(DbExecutor.supply(() -> ImageCache.get("courses", course.getId(), course.getImageVersion(),
+                    course.getCourseThumb(), 0, height)), null, courseImage::setImage);
         }
 
         // Check role
@@ -66,41 +77,35 @@ public class CourseViewerController {
     }
 
     private void loadInstructorName() {
-        String sql = "SELECT username FROM users WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, course.getInstructorId());
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                instructorNameLbl.setText("Instructor: " + rs.getString("username"));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        FxAsync.load(DbExecutor.supply(() -> CourseDao.findInstructorName(course.getInstructorId())), null,
+                name -> {
+                    if (name != null) {
+                        instructorNameLbl.setText("Instructor: " + name);
+                    }
+                });
     }
 
     private void loadModules() {
-        String sql = "SELECT * FROM modules WHERE course_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, course.getId());
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                Module mod = new Module(
-                        rs.getInt("id"),
-                        rs.getInt("course_id"),
-                        rs.getString("title"),
-                        rs.getBytes("module_data"),
-                        rs.getString("file_type"),
-                        rs.getDate("upload_date") != null ? rs.getDate("upload_date").toLocalDate() : null);
-                modulesContainer.getChildren().add(createModuleItem(mod));
+        int courseId = course.getId();
+        int userId = UserSession.getInstance().getUserId();
+        FxAsync.load(DbExecutor.supply(() -> {
+            // Two queries for the whole course, grouped by module in memory
+            Map<Integer, List<Assignment>> byModule = new HashMap<>();
+            for (Assignment assignment : AssignmentDao.findByCourse(courseId, userId)) {
+                byModule.computeIfAbsent(assignment.getModuleId(), id -> new ArrayList<>()).add(assignment);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+            Map<Module, List<Assignment>> tree = new LinkedHashMap<>();
+            for (Module mod : ModuleDao.findByCourse(courseId)) {
+                tree.put(mod, byModule.getOrDefault(mod.getId(), List.of()));
+            }
+            return tree;
+        }), loadingIndicator, tree -> {
+            modulesContainer.getChildren().clear();
+            tree.forEach((mod, assignments) -> modulesContainer.getChildren().add(createModuleItem(mod, assignments)));
+        });
     }
 
-    private VBox createModuleItem(Module mod) {
+    private VBox createModuleItem(Module mod, List<Assignment> assignments) {
         VBox box = new VBox(5);
         box.setStyle("-fx-border-color: #ddd; -fx-border-width: 1; -fx-padding: 10; -fx-background-color: white;");
 
@@ -112,7 +117,8 @@ public class CourseViewerController {
             dateStr = mod.getUploadDate().format(java.time.format.DateTimeFormatter.ofPattern("dd MMM yyyy"));
         }
 
-        Label dateLbl = new Label("Uploaded: " + dateStr);
+        String sizeStr = mod.getSize() > 0 ? " | " + FileHandler.formatSize(mod.getSize()) : "";
+        Label dateLbl = new Label("Uploaded: " + dateStr + sizeStr);
         dateLbl.setStyle("-fx-text-fill: #444; -fx-font-size: 12px; -fx-font-style: italic;");
 
         Button downloadBtn = new Button("View File");
@@ -120,96 +126,90 @@ public class CourseViewerController {
 
         box.getChildren().addAll(title, dateLbl, downloadBtn);
 
-        // Load assignments for this module
-        loadAssignments(mod.getId(), box);
+        for (Assignment assignment : assignments) {
+            box.getChildren().add(createAssignmentItem(assignment));
+        }
 
         return box;
     }
 
-    private void loadAssignments(int moduleId, VBox container) {
-        String sql = "SELECT * FROM assignments WHERE module_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, moduleId);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                int assignId = rs.getInt("id");
-                String desc = rs.getString("description");
-                int maxScore = rs.getInt("max_score");
-                Date dueDate = rs.getDate("due_date");
-                boolean hasFile = rs.getBytes("assignment_data") != null;
-                String fileType = rs.getString("file_type");
-
-                VBox assignBox = new VBox(5);
-                assignBox.setStyle("-fx-border-color: #ddd; -fx-padding: 10; -fx-background-color: #f9f9f9;");
-
-                Label descLbl = new Label("Assignment: " + desc);
-                descLbl.setStyle("-fx-font-weight: bold;");
-                Label scoreLbl = new Label("Max Score: " + maxScore + " | Due: " + dueDate);
-
-                HBox actionBox = new HBox(10);
-
-                if (hasFile) {
-                    Button downloadBtn = new Button(
-                            "Download Instructions (" + (fileType != null ? fileType.toUpperCase() : "FILE") + ")");
-                    downloadBtn.setOnAction(e -> downloadAssignmentFile(assignId, fileType));
-                    actionBox.getChildren().add(downloadBtn);
-                }
+    private VBox createAssignmentItem(Assignment assignment) {
+        int assignId = assignment.getId();
+        String fileType = assignment.getFileType();
 
-                Button uploadBtn = new Button("Upload Solution");
-                uploadBtn.setOnAction(e -> uploadSolution(assignId));
-                actionBox.getChildren().add(uploadBtn);
+        VBox assignBox = new VBox(5);
+        assignBox.setStyle("-fx-border-color: #ddd; -fx-padding: 10; -fx-background-color: #f9f9f9;");
 
-                assignBox.getChildren().addAll(descLbl, scoreLbl, actionBox);
-                container.getChildren().add(assignBox);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        Label descLbl = new Label("Assignment: " + assignment.getDescription());
+        descLbl.setStyle("-fx-font-weight: bold;");
+        Label scoreLbl = new Label(
+                "Max Score: " + assignment.getMaxScore() + " | Due: " + assignment.getDueDate());
+
+        HBox actionBox = new HBox(10);
+        boolean isStudent = "Student".equalsIgnoreCase(UserSession.getInstance().getRole());
+
+        if (assignment.hasFile()) {
+            Button downloadBtn = new Button(
+                    "Download Instructions (" + (fileType != null ? fileType.toUpperCase() : "FILE") + ")");
+            downloadBtn.setOnAction(e -> downloadAssignmentFile(assignId, fileType));
+            actionBox.getChildren().add(downloadBtn);
+        }
+
+        Button uploadBtn = new Button(assignment.getSubmissionCount() > 0 ? "Resubmit Solution" : "Upload Solution");
+        uploadBtn.setOnAction(e -> uploadSolution(assignId));
+        actionBox.getChildren().add(uploadBtn);
+
+        assignBox.getChildren().addAll(descLbl, scoreLbl);
+        if (isStudent) {
+            Label statusLbl = new Label(submissionStatus(assignment));
+            statusLbl.setStyle("-fx-font-size: 12px; -fx-text-fill: "
+                    + (assignment.getSubmissionCount() > 0 ? "green" : "#a00") + ";");
+            assignBox.getChildren().add(statusLbl);
         }
+        assignBox.getChildren().add(actionBox);
+        return assignBox;
+    }
+
+    private String submissionStatus(Assignment assignment) {
+        if (assignment.getSubmissionCount() == 0)
+            return "Not submitted";
+        if (assignment.getScore() != null)
+            return "Graded: " + assignment.getScore() + " / " + assignment.getMaxScore();
+        return "Submitted" + (assignment.getSubmissionCount() > 1
+                ? " (" + assignment.getSubmissionCount() + " times)"
+                : "") + ", awaiting grade";
     }
 
     private void downloadAssignmentFile(int assignId, String fileType) {
-        String sql = "SELECT assignment_data FROM assignments WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, assignId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                byte[] data = rs.getBytes("assignment_data");
-                if (data != null) {
-                    File temp = FileHandler.writeBytesToTempFile(data,
-                            "assignment_" + assignId + "." + (fileType != null ? fileType : "dat"));
-                    if (temp != null) {
-                        if (Desktop.isDesktopSupported()) {
-                            Desktop.getDesktop().open(temp);
-                        }
-                    }
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        String fileName = "assignment_" + assignId + "." + (fileType != null ? fileType : "dat");
+        openStoredFile(BlobColumn.ASSIGNMENT, assignId, fileName);
     }
 
     private void openFile(Module mod) {
-        if (mod.getModuleData() == null)
-            return;
-        try {
-            String extension = mod.getFileType();
-            if (extension == null || extension.isEmpty())
-                extension = "dat"; // Default
+        String extension = mod.getFileType();
+        if (extension == null || extension.isEmpty())
+            extension = "dat"; // Default
 
-            File tempFile = FileHandler.writeBytesToTempFile(mod.getModuleData(), mod.getTitle() + "." + extension);
-            if (tempFile != null && tempFile.exists()) {
-                Desktop.getDesktop().open(tempFile);
+        // Fetch the file contents only now that the user asked for them
+        openStoredFile(BlobColumn.MODULE, mod.getId(), mod.getTitle() + "." + extension);
+    }
+
+    private void openStoredFile(BlobColumn source, int id, String fileName) {
+        FxAsync.load(DbExecutor.supply(() -> FileCache.open(source, id, fileName)), loadingIndicator, file -> {
+            if (file != null && file.exists()) {
+                try {
+                    if (Desktop.isDesktopSupported()) {
+                        Desktop.getDesktop().open(file);
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
             } else {
                 Alert a = new Alert(Alert.AlertType.ERROR);
                 a.setContentText("Could not create temp file.");
                 a.show();
             }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        });
     }
 
     private void uploadSolution(int assignmentId) {
@@ -218,25 +218,27 @@ public class CourseViewerController {
         File file = fc.showOpenDialog(null);
 
         if (file != null) {
-            String sql = "INSERT INTO submissions (assignment_id, student_id, submission_data, file_type) VALUES (?, ?, ?, ?)";
-            try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                    PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, assignmentId);
-                stmt.setInt(2, UserSession.getInstance().getUserId());
-                stmt.setBytes(3, FileHandler.readFileToBytes(file));
-                String fileName = file.getName();
-                stmt.setString(4, fileName.substring(fileName.lastIndexOf(".") + 1));
-                stmt.executeUpdate();
-
-                Alert a = new Alert(Alert.AlertType.INFORMATION);
-                a.setContentText("Submitted successfully!");
-                a.show();
-            } catch (SQLException e) {
-                e.printStackTrace();
+            if (file.length() > FileHandler.MAX_UPLOAD_BYTES) {
                 Alert a = new Alert(Alert.AlertType.ERROR);
-                a.setContentText("Error uploading: " + e.getMessage());
+                a.setContentText("File too large (>" + FileHandler.formatSize(FileHandler.MAX_UPLOAD_BYTES) + ").");
                 a.show();
+                return;
             }
+
+            int studentId = UserSession.getInstance().getUserId();
+            FileHandler.ProgressListener progress = FxAsync.progressTo(uploadProgress);
+            FxAsync.load(DbExecutor.run(() -> SubmissionDao.insert(assignmentId, studentId, file, progress)),
+                    uploadProgress, done -> {
+                        Alert a = new Alert(Alert.AlertType.INFORMATION);
+                        a.setContentText("Submitted successfully!");
+                        a.show();
+                        loadModules(); // refresh submission status
+                    }, error -> {
+                        error.printStackTrace();
+                        Alert a = new Alert(Alert.AlertType.ERROR);
+                        a.setContentText("Error uploading: " + error.getMessage());
+                        a.show();
+                    });
         }
     }
 
@@ -258,7 +260,6 @@ public class CourseViewerController {
             stage.showAndWait();
 
             // Refresh modules after editing
-            modulesContainer.getChildren().clear();
             loadModules();
 
         } catch (IOException e) {
@@ -1,8 +1,14 @@
 package com.lms.app.controller;
 
+import com.lms.app.dao.ThumbnailDao;
 import com.lms.app.util.UserSession;
+import com.lms.app.util.Avatars;
+import com.lms.app.util.BlobColumn;
 import com.lms.app.util.DatabaseConnection;
-import com.lms.app.util.FileHandler;
+import com.lms.app.util.DbExecutor;
+import com.lms.app.util.FxAsync;
+import com.lms.app.util.ImageCache;
+import com.lms.app.util.ViewRegistry;
 
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -13,12 +19,6 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.scene.image.WritableImage;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.paint.Color;
-import javafx.scene.text.Font;
-import javafx.scene.text.FontWeight;
 import javafx.scene.shape.Circle;
 import javafx.geometry.Pos;
 import javafx.stage.Stage;
@@ -27,6 +27,9 @@ import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Dashboard Controller.
@@ -36,11 +39,15 @@ import java.sql.ResultSet;
  * - Manages the Sidebar navigation menu, showing/hiding buttons based on User
  * Role.
  * - Handles the center pane switching (loading different Views like
- * CourseManager, Profile).
+ * CourseManager, Profile). Views are kept by a `ViewRegistry` for the whole
+ * session and the ones reachable from the sidebar are preloaded in the
+ * background.
  * - Manages Logout logic.
  */
 public class DashboardController {
 
+    private static final double AVATAR_SIZE = 80;
+
     @FXML
     private BorderPane mainLayout;
 
@@ -50,6 +57,8 @@ public class DashboardController {
     @FXML
     private Label windowTitle;
 
+    private ViewRegistry views;
+
     /**
      * Initializes the Dashboard Logic.
      * 
@@ -61,12 +70,14 @@ public class DashboardController {
      * 5. Checks the User Role (Student/Instructor/Admin) and un-hides only the
      * relevant buttons.
      * - Example: Students only see "Catalog" and "My Grades".
-     * 6. Loads the default view (e.g., Profile or Catalog) into the center pane.
+     * 6. Starts preloading the views behind the visible buttons.
      */
     @FXML
     public void initialize() {
         String role = UserSession.getInstance().getRole();
         int userId = UserSession.getInstance().getUserId();
+        views = new ViewRegistry();
+        List<String> preload = new ArrayList<>();
 
         // Add user profile section at the top
         addUserProfileSection(userId);
@@ -79,6 +90,7 @@ public class DashboardController {
             settingsBtn.setOnAction(e -> loadView("AdminSettingsView.fxml"));
 
             sidebar.getChildren().addAll(manageUsersBtn, settingsBtn);
+            preload.addAll(List.of("UserManagerView.fxml", "AdminSettingsView.fxml"));
         }
 
         if ("Instructor".equalsIgnoreCase(role)) {
@@ -89,6 +101,7 @@ public class DashboardController {
             gradingBtn.setOnAction(e -> loadView("GradingView.fxml"));
 
             sidebar.getChildren().addAll(manageCoursesBtn, gradingBtn);
+            preload.addAll(List.of("CourseManager.fxml", "GradingView.fxml"));
         } else if ("Student".equalsIgnoreCase(role)) {
             Button catalogBtn = createNavButton("Course Catalog");
             catalogBtn.setOnAction(e -> loadView("StudentCatalog.fxml"));
@@ -97,12 +110,14 @@ public class DashboardController {
             gradesBtn.setOnAction(e -> loadView("StudentGradesView.fxml"));
 
             sidebar.getChildren().addAll(catalogBtn, gradesBtn);
+            preload.addAll(List.of("StudentCatalog.fxml", "StudentGradesView.fxml"));
         }
 
         Button profileBtn = createNavButton("My Profile");
         profileBtn.setOnAction(e -> loadProfileView());
 
         sidebar.getChildren().add(profileBtn);
+        preload.add("UserProfileView.fxml");
 
         // Add spacer to push logout button to bottom
         javafx.scene.layout.Region spacer = new javafx.scene.layout.Region();
@@ -115,72 +130,65 @@ public class DashboardController {
         logoutBtn.setOnAction(e -> handleLogout());
 
         sidebar.getChildren().addAll(spacer, logoutBtn);
+
+        views.preload(preload);
     }
 
+    /**
+     * Adds the avatar and username to the top of the sidebar.
+     * 
+     * The box is shown straight away; the profile thumbnail (or, without
+     * one, the placeholder from `Avatars`) is fetched and decoded in the
+     * background and filled in when ready.
+     */
     private void addUserProfileSection(int userId) {
-        try {
-            String sql = "SELECT username, profile_image FROM users WHERE id = ?";
-            Connection conn = DatabaseConnection.getInstance().getConnection();
-            PreparedStatement stmt = conn.prepareStatement(sql);
-            stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                VBox profileBox = new VBox(10);
-                profileBox.setAlignment(Pos.CENTER);
-                profileBox.setStyle("-fx-padding: 20 10 20 10; -fx-background-color: rgba(0,0,0,0.2);");
-
-                // User image
-                ImageView userImageView = new ImageView();
-                userImageView.setFitWidth(80);
-                userImageView.setFitHeight(80);
-                userImageView.setPreserveRatio(false);
-
-                // Make it circular
-                Circle clip = new Circle(40, 40, 40);
-                userImageView.setClip(clip);
-
-                byte[] imageData = rs.getBytes("profile_image");
-                if (imageData != null && imageData.length > 0) {
-                    try {
-                        userImageView.setImage(FileHandler.getImageFromBytes(imageData));
-                    } catch (Exception e) {
-                        // Use default placeholder
-                        userImageView.setImage(getDefaultUserImage());
-                    }
-                } else {
-                    userImageView.setImage(getDefaultUserImage());
-                }
+        VBox profileBox = new VBox(10);
+        profileBox.setAlignment(Pos.CENTER);
+        profileBox.setStyle("-fx-padding: 20 10 20 10; -fx-background-color: rgba(0,0,0,0.2);");
 
-                // Username label
-                Label usernameLabel = new Label(rs.getString("username"));
-                usernameLabel.setStyle("-fx-text-fill: white; -fx-font-weight: bold; -fx-font-size: 14px;");
+        // User image
+        ImageView userImageView = new ImageView();
+        userImageView.setFitWidth(AVATAR_SIZE);
+        userImageView.setFitHeight(AVATAR_SIZE);
+        userImageView.setPreserveRatio(false);
 
-                profileBox.getChildren().addAll(userImageView, usernameLabel);
-                sidebar.getChildren().add(0, profileBox);
-            }
+        // Make it circular
+        Circle clip = new Circle(AVATAR_SIZE / 2, AVATAR_SIZE / 2, AVATAR_SIZE / 2);
+        userImageView.setClip(clip);
+
+        // Username label
+        String username = UserSession.getInstance().getUsername();
+        Label usernameLabel = new Label(username);
+        usernameLabel.setStyle("-fx-text-fill: white; -fx-font-weight: bold; -fx-font-size: 14px;");
 
-            rs.close();
-            stmt.close();
-            conn.close();
-        } catch (Exception e) {
+        profileBox.getChildren().addAll(userImageView, usernameLabel);
+        sidebar.getChildren().add(0, profileBox);
+
+        FxAsync.load(DbExecutor.supply(() -> loadAvatar(userId, username)), null, userImageView::setImage, e -> {
             System.err.println("Error loading user profile: " + e.getMessage());
-        }
+            userImageView.setImage(Avatars.placeholder(username, (int) AVATAR_SIZE));
+        });
     }
 
-    private Image getDefaultUserImage() {
-        // Create a simple colored circle as default
-        Canvas canvas = new Canvas(80, 80);
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-        gc.setFill(Color.web("#007bff"));
-        gc.fillOval(0, 0, 80, 80);
-        gc.setFill(Color.WHITE);
-        gc.setFont(Font.font("Arial", FontWeight.BOLD, 36));
-        gc.fillText("?", 30, 55);
-
-        WritableImage image = new WritableImage(80, 80);
-        canvas.snapshot(null, image);
-        return image;
+    private static Image loadAvatar(int userId, String username) throws SQLException {
+        String sql = "SELECT profile_thumb, profile_image_version, "
+                + "(profile_image IS NOT NULL OR profile_image_hash IS NOT NULL) AS has_image FROM users WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                Image image = null;
+                if (rs.next()) {
+                    byte[] thumb = rs.getBytes("profile_thumb");
+                    if (thumb == null && rs.getBoolean("has_image")) {
+                        thumb = ThumbnailDao.backfill(conn, BlobColumn.PROFILE_IMAGE, userId);
+                    }
+                    image = ImageCache.get("users", userId, rs.getInt("profile_image_version"), thumb,
+                            AVATAR_SIZE, AVATAR_SIZE);
+                }
+                return image != null ? image : Avatars.placeholder(username, (int) AVATAR_SIZE);
+            }
+        }
     }
 
     private Button createNavButton(String text) {
@@ -224,29 +232,17 @@ public class DashboardController {
     }
 
     private void loadProfileView() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/lms/app/UserProfileView.fxml"));
-            Parent view = loader.load();
-
-            UserProfileController controller = loader.getController();
-            controller.setTargetUserId(UserSession.getInstance().getUserId());
-
-            mainLayout.setCenter(view);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        int userId = UserSession.getInstance().getUserId();
+        views.<UserProfileController>show("UserProfileView.fxml", mainLayout::setCenter,
+                controller -> controller.setTargetUserId(userId));
     }
 
     private void loadView(String fxmlFile) {
-        try {
-            Parent view = FXMLLoader.load(getClass().getResource("/com/lms/app/" + fxmlFile));
-            mainLayout.setCenter(view);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        views.show(fxmlFile, mainLayout::setCenter, null);
     }
 
     private void handleLogout() {
+        views.shutdown();
         UserSession.cleanSession();
         try {
             Parent root = FXMLLoader.load(getClass().getResource("/com/lms/app/LoginView.fxml"));
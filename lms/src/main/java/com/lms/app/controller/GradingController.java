@@ -1,18 +1,33 @@
 package com.lms.app.controller;
 
+import com.lms.app.dao.AssignmentDao;
+import com.lms.app.dao.CourseDao;
+import com.lms.app.dao.GradeDao;
+import com.lms.app.dao.ReferenceDataDao;
+import com.lms.app.dao.SubmissionDao;
+import com.lms.app.model.Assignment;
+import com.lms.app.model.Course;
+import com.lms.app.model.GradeSummary;
+import com.lms.app.model.SubmissionDTO;
+import com.lms.app.model.SubmissionFilter;
 import com.lms.app.util.AlertHelper;
+import com.lms.app.util.BlobColumn;
 import com.lms.app.util.DatabaseConnection;
-import com.lms.app.util.FileHandler;
+import com.lms.app.util.DbExecutor;
+import com.lms.app.util.FileCache;
+import com.lms.app.util.FxAsync;
+import com.lms.app.util.PagedTableLoader;
+import com.lms.app.util.Refreshable;
+import com.lms.app.util.UserSession;
 
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
-import java.io.File;
 import java.awt.Desktop;
 import java.io.IOException;
 import java.sql.*;
+import java.util.function.Function;
 
 /**
  * Grading Controller.
@@ -20,16 +35,22 @@ import java.sql.*;
  * Purpose:
  * - (Instructor Only) Interface for grading student submissions.
  * - Displays a table of submissions with student names, dates, and files.
+ * - Tables are filled a page at a time as the instructor scrolls
+ * (`PagedTableLoader`); filters and sort order are applied in SQL.
  * - Allows the instructor to enter a numeric score and add feedback.
  * - Updates the `submissions` table in the database.
  */
-public class GradingController {
+public class GradingController implements Refreshable {
+
+    private static final int PAGE_SIZE = 100;
 
     @FXML
     private TableView<SubmissionDTO> pendingTable;
     @FXML
     private TableColumn<SubmissionDTO, String> studentCol;
     @FXML
+    private TableColumn<SubmissionDTO, String> courseCol;
+    @FXML
     private TableColumn<SubmissionDTO, String> assignCol;
     @FXML
     private TableColumn<SubmissionDTO, String> dateCol;
@@ -39,6 +60,8 @@ public class GradingController {
     @FXML
     private TableColumn<SubmissionDTO, String> gStudentCol;
     @FXML
+    private TableColumn<SubmissionDTO, String> gCourseCol;
+    @FXML
     private TableColumn<SubmissionDTO, String> gAssignCol;
     @FXML
     private TableColumn<SubmissionDTO, String> gDateCol;
@@ -56,21 +79,37 @@ public class GradingController {
     @FXML
     private Label studentInfoLabel;
 
+    // Filters
+    @FXML
+    private ComboBox<Course> courseFilter;
+    @FXML
+    private ComboBox<Assignment> assignmentFilter;
+    @FXML
+    private ComboBox<String> sortCombo;
+
     private Integer currentStudentFilterId = null;
 
+    private PagedTableLoader<SubmissionDTO> pendingLoader;
+    private PagedTableLoader<SubmissionDTO> gradedLoader;
+
     public void initialize() {
+        pendingLoader = new PagedTableLoader<>(pendingTable, PAGE_SIZE);
+        gradedLoader = new PagedTableLoader<>(gradedTable, PAGE_SIZE);
+
         // Pending Table
         studentCol.setCellValueFactory(new PropertyValueFactory<>("username"));
+        courseCol.setCellValueFactory(new PropertyValueFactory<>("courseTitle"));
         assignCol.setCellValueFactory(new PropertyValueFactory<>("assignmentTitle"));
         dateCol.setCellValueFactory(new PropertyValueFactory<>("dueDate"));
 
         // Graded Table
         gStudentCol.setCellValueFactory(new PropertyValueFactory<>("username"));
+        gCourseCol.setCellValueFactory(new PropertyValueFactory<>("courseTitle"));
         gAssignCol.setCellValueFactory(new PropertyValueFactory<>("assignmentTitle"));
         gDateCol.setCellValueFactory(new PropertyValueFactory<>("dueDate"));
         gScoreCol.setCellValueFactory(new PropertyValueFactory<>("score"));
 
-        loadSubmissions();
+        setupFilters();
 
         // Listeners
         pendingTable.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
@@ -88,6 +127,20 @@ public class GradingController {
         });
     }
 
+    /**
+     * Reloads both tables and, unless a course is selected (replacing the
+     * items would clear it), the course filter.
+     */
+    @Override
+    public void refresh() {
+        if (courseFilter.getValue() == null) {
+            int instructorId = UserSession.getInstance().getUserId();
+            FxAsync.load(DbExecutor.supply(() -> CourseDao.findByInstructor(instructorId)), null,
+                    courses -> courseFilter.setItems(FXCollections.observableArrayList(courses)));
+        }
+        loadSubmissions();
+    }
+
     private void populateFields(SubmissionDTO sub) {
         if (sub.getScore() != -1) {
             scoreField.setText(String.valueOf(sub.getScore()));
@@ -97,56 +150,58 @@ public class GradingController {
         feedbackArea.setText(sub.getFeedback() != null ? sub.getFeedback() : "");
     }
 
-    private void loadSubmissions() {
-        ObservableList<SubmissionDTO> pendingList = FXCollections.observableArrayList();
-        ObservableList<SubmissionDTO> gradedList = FXCollections.observableArrayList();
-
-        StringBuilder sqlBuilder = new StringBuilder(
-                "SELECT s.id, u.username, a.description, a.due_date, s.submission_data, s.file_type, s.score, s.feedback_text "
-                        + "FROM submissions s "
-                        + "JOIN assignments a ON s.assignment_id = a.id "
-                        + "JOIN users u ON s.student_id = u.id ");
-
-        if (currentStudentFilterId != null) {
-            sqlBuilder.append("WHERE s.student_id = ? ");
-        }
-
-        String sql = sqlBuilder.toString();
-
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+    private void setupFilters() {
+        showPromptWhenEmpty(courseFilter, Course::getTitle);
+        showPromptWhenEmpty(assignmentFilter, Assignment::getDescription);
+        sortCombo.setItems(FXCollections.observableArrayList("Due date: oldest first", "Due date: newest first"));
+        sortCombo.getSelectionModel().selectFirst();
 
-            if (currentStudentFilterId != null) {
-                stmt.setInt(1, currentStudentFilterId);
+        courseFilter.valueProperty().addListener((obs, oldVal, newVal) -> {
+            assignmentFilter.setValue(null);
+            assignmentFilter.getItems().clear();
+            if (newVal != null) {
+                FxAsync.load(DbExecutor.supply(() -> AssignmentDao.findByCourse(newVal.getId())), null,
+                        assignments -> assignmentFilter.setItems(FXCollections.observableArrayList(assignments)));
             }
+            loadSubmissions();
+        });
+        assignmentFilter.valueProperty().addListener((obs, oldVal, newVal) -> loadSubmissions());
+        sortCombo.valueProperty().addListener((obs, oldVal, newVal) -> loadSubmissions());
+    }
 
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                int scoreVal = rs.getInt("score");
-                if (rs.wasNull())
-                    scoreVal = -1;
-
-                SubmissionDTO dto = new SubmissionDTO(
-                        rs.getInt("id"),
-                        rs.getString("username"),
-                        rs.getString("description"),
-                        rs.getString("due_date"),
-                        rs.getBytes("submission_data"),
-                        rs.getString("file_type"),
-                        scoreVal,
-                        rs.getString("feedback_text"));
-
-                if (scoreVal == -1) {
-                    pendingList.add(dto);
-                } else {
-                    gradedList.add(dto);
-                }
+    /**
+     * Uses `label` for items and the prompt text for "no selection", which a
+     * plain ComboBox stops showing once its value is cleared.
+     */
+    private static <T> void showPromptWhenEmpty(ComboBox<T> combo, Function<T, String> label) {
+        combo.setCellFactory(lv -> new ListCell<>() {
+            @Override
+            protected void updateItem(T item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : label.apply(item));
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        pendingTable.setItems(pendingList);
-        gradedTable.setItems(gradedList);
+        });
+        combo.setButtonCell(new ListCell<>() {
+            @Override
+            protected void updateItem(T item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? combo.getPromptText() : label.apply(item));
+            }
+        });
+    }
+
+    private void loadSubmissions() {
+        Integer courseId = courseFilter.getValue() != null ? courseFilter.getValue().getId() : null;
+        Integer assignmentId = assignmentFilter.getValue() != null ? assignmentFilter.getValue().getId() : null;
+        boolean newestFirst = sortCombo.getSelectionModel().getSelectedIndex() == 1;
+
+        int instructorId = UserSession.getInstance().getUserId();
+        SubmissionFilter pending = new SubmissionFilter(instructorId, false, currentStudentFilterId, courseId,
+                assignmentId, newestFirst);
+        SubmissionFilter graded = new SubmissionFilter(instructorId, true, currentStudentFilterId, courseId,
+                assignmentId, newestFirst);
+        pendingLoader.load((after, limit) -> SubmissionDao.findPage(pending, after, limit));
+        gradedLoader.load((after, limit) -> SubmissionDao.findPage(graded, after, limit));
     }
 
     private SubmissionDTO getSelectedSubmission() {
@@ -158,24 +213,26 @@ public class GradingController {
 
     public void openStudentFile() {
         SubmissionDTO selected = getSelectedSubmission();
-        if (selected != null && selected.getSubmissionData() != null) {
-            try {
-                String extension = selected.getFileType();
-                if (extension == null || extension.isEmpty())
-                    extension = "pdf";
-
-                File tempFile = FileHandler.writeBytesToTempFile(selected.getSubmissionData(),
-                        "submission_" + selected.getId() + "." + extension);
-
-                if (tempFile != null && tempFile.exists()) {
-                    Desktop.getDesktop().open(tempFile);
-                } else {
-                    AlertHelper.showError("Error", "Could not create temp file.");
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
+        if (selected == null)
+            return;
+
+        String extension = selected.getFileType();
+        if (extension == null || extension.isEmpty())
+            extension = "pdf";
+        String fileName = "submission_" + selected.getId() + "." + extension;
+
+        FxAsync.load(DbExecutor.supply(() -> FileCache.open(BlobColumn.SUBMISSION, selected.getId(), fileName)),
+                null, file -> {
+                    if (file != null && file.exists()) {
+                        try {
+                            Desktop.getDesktop().open(file);
+                        } catch (IOException e) {
+                            e.printStackTrace();
+                        }
+                    } else {
+                        AlertHelper.showError("Error", "Could not create temp file.");
+                    }
+                });
     }
 
     public void submitGrade() {
@@ -183,27 +240,40 @@ public class GradingController {
         if (selected == null)
             return;
 
+        int score;
         try {
-            int score = Integer.parseInt(scoreField.getText());
-            String feedback = feedbackArea.getText();
-
-            String sql = "UPDATE submissions SET score = ?, feedback_text = ? WHERE id = ?";
-            try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                    PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, score);
-                stmt.setString(2, feedback);
-                stmt.setInt(3, selected.getId());
-                stmt.executeUpdate();
-
-                loadSubmissions(); // Refresh
-                scoreField.clear();
-                feedbackArea.clear();
-            }
+            score = Integer.parseInt(scoreField.getText());
         } catch (NumberFormatException e) {
             AlertHelper.showError("Invalid Input", "Score must be a number.");
-        } catch (SQLException e) {
-            e.printStackTrace();
+            return;
         }
+        String feedback = feedbackArea.getText();
+        int instructorId = UserSession.getInstance().getUserId();
+
+        // Only submissions to this instructor's own courses can be graded
+        FxAsync.load(DbExecutor.supply(() -> SubmissionDao.grade(selected.getId(), instructorId, score, feedback)),
+                null, graded -> {
+                    if (!graded) {
+                        // Nothing was updated, e.g. the submission was deleted meanwhile
+                        AlertHelper.showError("Not Graded", "The submission could not be found; the list is reloaded.");
+                        pendingLoader.reload();
+                        return;
+                    }
+                    // Graded items leave the pending queue without reloading the pages above them
+                    pendingLoader.getItems().remove(selected);
+                    gradedLoader.reload();
+                    scoreField.clear();
+                    feedbackArea.clear();
+                }, e -> {
+                    e.printStackTrace();
+                    AlertHelper.showError("Database Error", "Could not save the grade: " + e.getMessage());
+                });
+    }
+
+    /**
+     * What the student search shows about one student.
+     */
+    private record StudentInfo(String name, String department, String academicYear, GradeSummary standing) {
     }
 
     public void searchStudent() {
@@ -213,108 +283,80 @@ public class GradingController {
             return;
         }
 
+        int studentId;
         try {
-            int studentId = Integer.parseInt(idText);
-
-            String sql = "SELECT u.username, d.name as dept_name, ay.year_name " +
-                    "FROM users u " +
-                    "LEFT JOIN departments d ON u.department_id = d.id " +
-                    "LEFT JOIN academic_years ay ON u.academic_year_id = ay.id " +
-                    "WHERE u.id = ? AND u.role = 'Student'";
-
-            try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                    PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-                stmt.setInt(1, studentId);
-                ResultSet rs = stmt.executeQuery();
-
-                if (rs.next()) {
-                    String name = rs.getString("username");
-                    String dept = rs.getString("dept_name");
-                    String year = rs.getString("year_name");
-
-                    studentInfoLabel.setText(String.format("ID: %d | Name: %s | Dept: %s | Year: %s",
-                            studentId, name, dept != null ? dept : "N/A", year != null ? year : "N/A"));
-
-                    currentStudentFilterId = studentId;
-                    loadSubmissions();
-
-                } else {
-                    AlertHelper.showError("Not Found", "No student found with ID: " + studentId);
-                    studentInfoLabel.setText("Student not found");
-                    currentStudentFilterId = null;
-                    loadSubmissions(); // Load all or clear? Usually reset checks valid ID.
-                }
-            }
-
+            studentId = Integer.parseInt(idText);
         } catch (NumberFormatException e) {
             AlertHelper.showError("Error", "ID must be a number");
-        } catch (SQLException e) {
+            return;
+        }
+
+        int instructorId = UserSession.getInstance().getUserId();
+        FxAsync.load(DbExecutor.supply(() -> findStudent(studentId, instructorId)), null, info -> {
+            if (info != null) {
+                String percent = info.standing().getPercentage() != null
+                        ? String.format(" (%.1f%%)", info.standing().getPercentage())
+                        : "";
+
+                studentInfoLabel.setText(String.format(
+                        "ID: %d | Name: %s | Dept: %s | Year: %s | Standing: %d / %d%s, %d pending",
+                        studentId, info.name(), info.department() != null ? info.department() : "N/A",
+                        info.academicYear() != null ? info.academicYear() : "N/A",
+                        info.standing().getEarned(), info.standing().getPossible(), percent,
+                        info.standing().getPendingCount()));
+
+                currentStudentFilterId = studentId;
+                loadSubmissions();
+
+            } else {
+                AlertHelper.showError("Not Found", "No student found with ID: " + studentId);
+                studentInfoLabel.setText("Student not found");
+                currentStudentFilterId = null;
+                loadSubmissions(); // Load all or clear? Usually reset checks valid ID.
+            }
+        }, e -> {
             e.printStackTrace();
             AlertHelper.showError("Database Error", "Failed to search student");
+        });
+    }
+
+    /**
+     * Reads the student row and returns its connection before the standing
+     * (which borrows its own) is fetched.
+     * 
+     * @return Null if there is no student with that id.
+     */
+    private static StudentInfo findStudent(int studentId, int instructorId) throws SQLException {
+        String sql = "SELECT username, department_id, academic_year_id FROM users WHERE id = ? AND role = 'Student'";
+        String name;
+        int deptId;
+        int yearId;
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, studentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next())
+                    return null;
+                name = rs.getString("username");
+                deptId = rs.getInt("department_id");
+                yearId = rs.getInt("academic_year_id");
+            }
         }
+
+        // Department and year names come from ReferenceDataDao's cache; the
+        // standing in this instructor's courses from gradebook_summary
+        return new StudentInfo(name, ReferenceDataDao.getDepartmentName(deptId),
+                ReferenceDataDao.getAcademicYearName(yearId), GradeDao.findStanding(studentId, instructorId));
     }
 
     public void resetFilter() {
         searchIdField.clear();
         studentInfoLabel.setText("No student selected");
         currentStudentFilterId = null;
-        loadSubmissions();
-    }
-
-    // DTO Inner Class
-    public static class SubmissionDTO {
-        private int id;
-        private String username;
-        private String assignmentTitle;
-        private String dueDate;
-        private byte[] submissionData;
-        private String fileType;
-        private int score;
-        private String feedback;
-
-        public SubmissionDTO(int id, String username, String assignmentTitle, String dueDate, byte[] submissionData,
-                String fileType, int score, String feedback) {
-            this.id = id;
-            this.username = username;
-            this.assignmentTitle = assignmentTitle;
-            this.dueDate = dueDate;
-            this.submissionData = submissionData;
-            this.fileType = fileType;
-            this.score = score;
-            this.feedback = feedback;
-        }
-
-        public int getId() {
-            return id;
-        }
-
-        public String getUsername() {
-            return username;
-        }
-
-        public String getAssignmentTitle() {
-            return assignmentTitle;
-        }
-
-        public String getDueDate() {
-            return dueDate;
-        }
-
-        public byte[] getSubmissionData() {
-            return submissionData;
-        }
-
-        public String getFileType() {
-            return fileType;
-        }
-
-        public int getScore() {
-            return score;
-        }
-
-        public String getFeedback() {
-            return feedback;
+        if (courseFilter.getValue() != null) {
+            courseFilter.setValue(null); // listener reloads
+        } else {
+            loadSubmissions();
         }
     }
 }
@@ -3,6 +3,9 @@ package com.lms.app.controller;
 import com.lms.app.util.UserSession;
 import com.lms.app.util.DatabaseConnection;
 import com.lms.app.util.AlertHelper;
+import com.lms.app.util.DbExecutor;
+import com.lms.app.util.FxAsync;
+import com.lms.app.util.PasswordHasher;
 import com.lms.app.model.User; // Added by user instruction
 
 import javafx.fxml.FXML;
@@ -26,7 +29,8 @@ import java.sql.SQLException;
  * 
  * Purpose:
  * - Manages the authentication process.
- * - Validates user credentials against the database.
+ * - Validates user credentials against the salted password hashes in the
+ * database, upgrading legacy plaintext passwords on the way.
  * - Handles "Forgot Password" logic (if implemented) or Account Locking checks.
  * - Initializes the `UserSession` upon success.
  */
@@ -38,13 +42,16 @@ public class LoginController {
     @FXML
     private PasswordField passwordField;
 
+    private boolean loginInProgress;
+
     /**
      * Handles the "Login" button click event.
      * 
      * Logic Flow:
      * 1. Extracts the raw text from `usernameField` and `passwordField`.
      * 2. Checks if either field is empty; if so, shows an Error Alert.
-     * 3. Calls `validateLogin(user, pass)` to check credentials against the DB.
+     * 3. Calls `validateLogin(user, pass)` on a background thread to check
+     * credentials against the DB.
      * 4. If valid:
      * - Loads the Dashboard using `loadDashboard()`.
      * - Closes specific login resources if needed.
@@ -61,52 +68,92 @@ public class LoginController {
             return;
         }
 
-        if (validateLogin(username, password)) {
-            // Transition to the main application screen
-            loadDashboard();
-        } else {
-            // Wait, user asked for "If role is locked, cannot login".
-            // With my change, validateLogin returns false for Locked.
-            // So it shows "Login Failed" - "Invalid credentials".
-            // Ideally we want to say "Account Locked".
-            // I will change validateLogin signature in next step if needed or assume
-            // invalid is sufficient "prevention".
-            // Actually, the user requirement is "Cannot login". Returning false satisfies
-            // this.
-            // I will improve the message by checking specific "Locked" query if needed,
-            // But let's verify if I should just use a member variable or return int.
-            showAlert("Login Failed", "Invalid credentials or Account Locked.");
-        }
+        if (loginInProgress)
+            return;
+        loginInProgress = true;
+
+        // Hashing takes a noticeable fraction of a second; keep it off the FX thread
+        FxAsync.load(DbExecutor.supply(() -> validateLogin(username, password)), null, valid -> {
+            loginInProgress = false;
+            if (valid) {
+                // Transition to the main application screen
+                loadDashboard();
+            } else {
+                showAlert("Login Failed", "Invalid credentials or Account Locked.");
+            }
+        }, error -> {
+            loginInProgress = false;
+            error.printStackTrace();
+            showAlert("Login Failed", "Could not reach the database: " + error.getMessage());
+        });
+    }
+
+    /**
+     * The columns of `users` a login needs.
+     */
+    private record Account(int id, String username, String password, String role, byte[] profileThumb,
+            int departmentId, int academicYearId) {
     }
 
-    private boolean validateLogin(String username, String password) {
-        String query = "SELECT * FROM users WHERE username = ? AND password = ?";
+    /**
+     * Checks the credentials and opens the `UserSession`.
+     * 
+     * Logic:
+     * 1. Fetches only the columns the session needs plus the stored password
+     * hash, by username, and returns the connection to the pool.
+     * 2. Verifies the password with `PasswordHasher` (unknown usernames take as
+     * long as known ones) without holding a connection.
+     * 3. Replaces plaintext passwords and hashes with an outdated work factor
+     * with a fresh hash, then borrows a connection only for the UPDATE. It only
+     * matches if the password was not changed meanwhile.
+     * 
+     * @return False for wrong credentials and for Locked accounts.
+     */
+    private boolean validateLogin(String username, String password) throws SQLException {
+        Account account = findAccount(username);
+        if (!PasswordHasher.verify(password, account != null ? account.password() : null))
+            return false;
+        if ("Locked".equalsIgnoreCase(account.role()))
+            return false; // Valid credentials but locked
+
+        if (PasswordHasher.needsRehash(account.password()))
+            rehash(account.id(), account.password(), PasswordHasher.hash(password));
+
+        UserSession.getInstance(
+                account.id(),
+                account.username(),
+                account.role(),
+                account.profileThumb(),
+                account.departmentId(),
+                account.academicYearId());
+        return true;
+    }
+
+    private Account findAccount(String username) throws SQLException {
+        String query = "SELECT id, username, password, role, profile_thumb, department_id, academic_year_id "
+                + "FROM users WHERE username = ?";
         try (Connection conn = DatabaseConnection.getInstance().getConnection();
                 PreparedStatement stmt = conn.prepareStatement(query)) {
-
             stmt.setString(1, username);
-            stmt.setString(2, password);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                String role = rs.getString("role");
-                if ("Locked".equalsIgnoreCase(role)) {
-                    return false; // Valid credentials but locked
-                }
-
-                UserSession.getInstance(
-                        rs.getInt("id"),
-                        rs.getString("username"),
-                        role,
-                        rs.getBytes("profile_image"),
-                        rs.getInt("department_id"),
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next())
+                    return null;
+                return new Account(rs.getInt("id"), rs.getString("username"), rs.getString("password"),
+                        rs.getString("role"), rs.getBytes("profile_thumb"), rs.getInt("department_id"),
                         rs.getInt("academic_year_id"));
-                return true;
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
-        return false;
+    }
+
+    private void rehash(int userId, String stored, String newHash) throws SQLException {
+        String sql = "UPDATE users SET password = ? WHERE id = ? AND password = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, newHash);
+            stmt.setInt(2, userId);
+            stmt.setString(3, stored);
+            stmt.executeUpdate();
+        }
     }
 
     private void loadDashboard() {
@@ -1,9 +1,13 @@
 package com.lms.app.controller;
 
+import com.lms.app.dao.AssignmentDao;
+import com.lms.app.dao.DeletionDao;
+import com.lms.app.dao.ModuleDao;
 import com.lms.app.model.Module;
 import com.lms.app.model.*;
 import com.lms.app.util.FileHandler;
-import com.lms.app.util.DatabaseConnection;
+import com.lms.app.util.DbExecutor;
+import com.lms.app.util.FxAsync;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -15,7 +19,6 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.FileChooser;
 
 import java.io.File;
-import java.sql.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
@@ -49,6 +52,8 @@ public class ModuleEditorController {
     private Label statusLbl;
     @FXML
     private Button fileBtn;
+    @FXML
+    private ProgressBar uploadProgress;
 
     // Assignment fields
     @FXML
@@ -116,40 +121,25 @@ public class ModuleEditorController {
     }
 
     private void loadModules() {
-        ObservableList<Module> list = FXCollections.observableArrayList();
-        String sql = "SELECT * FROM modules WHERE course_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, courseId);
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                list.add(new Module(
-                        rs.getInt("id"),
-                        rs.getInt("course_id"),
-                        rs.getString("title"),
-                        rs.getBytes("module_data"),
-                        rs.getString("file_type"),
-                        rs.getDate("upload_date") != null ? rs.getDate("upload_date").toLocalDate() : null));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        System.out.println("DEBUG: Loaded " + list.size() + " modules for course " + courseId);
-        moduleTable.setItems(list);
-        moduleSelector.setItems(list);
-
-        // Custom simple cell factory for combobox to show title
-        moduleSelector.setConverter(new javafx.util.StringConverter<Module>() {
-            @Override
-            public String toString(Module object) {
-                return object == null ? "" : object.getTitle();
-            }
+        int id = courseId;
+        FxAsync.loadInto(moduleTable, DbExecutor.supply(() -> ModuleDao.findByCourse(id)), modules -> {
+            ObservableList<Module> list = FXCollections.observableArrayList(modules);
+            moduleTable.setItems(list);
+            moduleSelector.setItems(list);
+
+            // Custom simple cell factory for combobox to show title
+            moduleSelector.setConverter(new javafx.util.StringConverter<Module>() {
+                @Override
+                public String toString(Module object) {
+                    return object == null ? "" : object.getTitle();
+                }
 
-            @Override
-            public Module fromString(String string) {
-                return moduleTable.getItems().stream().filter(m -> m.getTitle().equals(string)).findFirst()
-                        .orElse(null);
-            }
+                @Override
+                public Module fromString(String string) {
+                    return moduleTable.getItems().stream().filter(m -> m.getTitle().equals(string)).findFirst()
+                            .orElse(null);
+                }
+            });
         });
     }
 
@@ -187,46 +177,32 @@ public class ModuleEditorController {
             return;
         }
 
-        // Check file size (max 16MB for safety with default MySQL settings)
-        if (selectedDoc.length() > 16 * 1024 * 1024) {
-            statusLbl.setText("File too large (>16MB).");
+        if (selectedDoc.length() > FileHandler.MAX_UPLOAD_BYTES) {
+            statusLbl.setText("File too large (>" + FileHandler.formatSize(FileHandler.MAX_UPLOAD_BYTES) + ").");
             statusLbl.setStyle("-fx-text-fill: red;");
             return;
         }
 
-        String fileName = selectedDoc.getName();
-        String fileType = "file";
-        int dotIndex = fileName.lastIndexOf(".");
-        if (dotIndex >= 0 && dotIndex < fileName.length() - 1) {
-            fileType = fileName.substring(dotIndex + 1);
-        }
-
-        // Truncate to 10 chars to fit database column
-        if (fileType.length() > 10) {
-            fileType = fileType.substring(0, 10);
-        }
+        File file = selectedDoc;
+        String fileType = FileHandler.getFileType(file.getName(), "file");
+        int id = courseId;
 
-        String sql = "INSERT INTO modules (course_id, title, module_data, file_type, upload_date) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, courseId);
-            stmt.setString(2, title);
-            stmt.setBytes(3, FileHandler.readFileToBytes(selectedDoc));
-            stmt.setString(4, fileType);
-            stmt.setDate(5, Date.valueOf(LocalDate.now())); // Set current date
-            stmt.executeUpdate();
-
-            loadModules();
-            statusLbl.setText("Module Added Successfully!");
-            statusLbl.setStyle("-fx-text-fill: green;");
-            modTitleField.clear();
-            selectedDoc = null;
-            fileBtn.setText("Upload File");
-        } catch (SQLException e) {
-            e.printStackTrace();
-            statusLbl.setText("DB Error: " + e.getMessage());
-            statusLbl.setStyle("-fx-text-fill: red;");
-        }
+        statusLbl.setText("Uploading " + file.getName() + "...");
+        statusLbl.setStyle("-fx-text-fill: black;");
+        FileHandler.ProgressListener progress = FxAsync.progressTo(uploadProgress);
+        FxAsync.load(DbExecutor.run(() -> ModuleDao.insert(id, title, file, fileType, progress)), uploadProgress,
+                done -> {
+                    loadModules();
+                    statusLbl.setText("Module Added Successfully!");
+                    statusLbl.setStyle("-fx-text-fill: green;");
+                    modTitleField.clear();
+                    selectedDoc = null;
+                    fileBtn.setText("Upload File");
+                }, error -> {
+                    error.printStackTrace();
+                    statusLbl.setText("DB Error: " + error.getMessage());
+                    statusLbl.setStyle("-fx-text-fill: red;");
+                });
     }
 
     public void deleteModule(Module module) {
@@ -239,28 +215,17 @@ public class ModuleEditorController {
         confirm.showAndWait();
 
         if (confirm.getResult() == ButtonType.YES) {
-            try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
-                // First delete assignments for this module
-                String delAssigns = "DELETE FROM assignments WHERE module_id = ?";
-                try (PreparedStatement stmt = conn.prepareStatement(delAssigns)) {
-                    stmt.setInt(1, module.getId());
-                    stmt.executeUpdate();
-                }
-
-                // Then delete module
-                String sql = "DELETE FROM modules WHERE id = ?";
-                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    stmt.setInt(1, module.getId());
-                    stmt.executeUpdate();
-                    loadModules();
-                    statusLbl.setText("Module Deleted.");
-                    statusLbl.setStyle("-fx-text-fill: green;");
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-                statusLbl.setText("Deletion Failed: " + e.getMessage());
+            int moduleId = module.getId();
+            int course = courseId;
+            FxAsync.load(DbExecutor.run(() -> DeletionDao.deleteModule(moduleId, course)), null, v -> {
+                loadModules();
+                statusLbl.setText("Module Deleted.");
+                statusLbl.setStyle("-fx-text-fill: green;");
+            }, error -> {
+                error.printStackTrace();
+                statusLbl.setText("Deletion Failed: " + error.getMessage());
                 statusLbl.setStyle("-fx-text-fill: red;");
-            }
+            });
         }
     }
 
@@ -293,64 +258,42 @@ public class ModuleEditorController {
             return;
         }
 
+        int maxScore;
         try {
-            int maxScore = Integer.parseInt(maxScoreStr);
-            String sql = "INSERT INTO assignments (module_id, description, max_score, due_date, assignment_data, file_type) VALUES (?, ?, ?, ?, ?, ?)";
-
-            try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                    PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, selectedModule.getId());
-                stmt.setString(2, desc);
-                stmt.setInt(3, maxScore);
-                stmt.setDate(4, Date.valueOf(dueDate));
-
-                if (selectedAssignmentDoc != null) {
-                    if (selectedAssignmentDoc.length() > 16 * 1024 * 1024) {
-                        statusLbl.setText("Assignment file too large (>16MB).");
-                        statusLbl.setStyle("-fx-text-fill: red;");
-                        return;
-                    }
-
-                    stmt.setBytes(5, FileHandler.readFileToBytes(selectedAssignmentDoc));
-                    String fileName = selectedAssignmentDoc.getName();
-                    String ext = "file";
-                    int dotIndex = fileName.lastIndexOf(".");
-                    if (dotIndex >= 0 && dotIndex < fileName.length() - 1) {
-                        ext = fileName.substring(dotIndex + 1);
-                    }
-                    if (ext.length() > 10)
-                        ext = ext.substring(0, 10);
-
-                    stmt.setString(6, ext);
-                } else {
-                    stmt.setBytes(5, null);
-                    stmt.setString(6, null); // file_type can be null
-                }
-
-                stmt.executeUpdate();
-                statusLbl.setText("Assignment Added!");
-                statusLbl.setStyle("-fx-text-fill: green;");
-
-                // Clear fields & Refresh List
-                assignDescField.clear();
-                maxScoreField.clear();
-                dueDatePicker.setValue(null);
-                assignFileBtn.setText("Attach File (Optional)");
-                selectedAssignmentDoc = null;
-                onModuleSelected(); // Refresh list
-            }
+            maxScore = Integer.parseInt(maxScoreStr);
         } catch (NumberFormatException e) {
             statusLbl.setText("Max Score must be a number.");
             statusLbl.setStyle("-fx-text-fill: red;");
-        } catch (SQLException e) {
-            e.printStackTrace();
-            statusLbl.setText("DB Error: " + e.getMessage());
-            statusLbl.setStyle("-fx-text-fill: red;");
-        } catch (Exception e) {
-            e.printStackTrace();
-            statusLbl.setText("Error: " + e.getMessage());
+            return;
+        }
+
+        File file = selectedAssignmentDoc;
+        if (file != null && file.length() > FileHandler.MAX_UPLOAD_BYTES) {
+            statusLbl.setText(
+                    "Assignment file too large (>" + FileHandler.formatSize(FileHandler.MAX_UPLOAD_BYTES) + ").");
             statusLbl.setStyle("-fx-text-fill: red;");
+            return;
         }
+
+        int moduleId = selectedModule.getId();
+        FileHandler.ProgressListener progress = FxAsync.progressTo(uploadProgress);
+        FxAsync.load(DbExecutor.run(() -> AssignmentDao.insert(moduleId, desc, maxScore, dueDate, file, progress)),
+                uploadProgress, done -> {
+                    statusLbl.setText("Assignment Added!");
+                    statusLbl.setStyle("-fx-text-fill: green;");
+
+                    // Clear fields & Refresh List
+                    assignDescField.clear();
+                    maxScoreField.clear();
+                    dueDatePicker.setValue(null);
+                    assignFileBtn.setText("Attach File (Optional)");
+                    selectedAssignmentDoc = null;
+                    onModuleSelected(); // Refresh list
+                }, error -> {
+                    error.printStackTrace();
+                    statusLbl.setText("DB Error: " + error.getMessage());
+                    statusLbl.setStyle("-fx-text-fill: red;");
+                });
     }
 
     public void onModuleSelected() {
@@ -359,18 +302,16 @@ public class ModuleEditorController {
         if (mod == null)
             return;
 
-        String sql = "SELECT id, description FROM assignments WHERE module_id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, mod.getId());
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
+        int moduleId = mod.getId();
+        FxAsync.load(DbExecutor.supply(() -> AssignmentDao.findByModule(moduleId)), null, assignments -> {
+            if (moduleSelector.getValue() != mod)
+                return; // another module was picked meanwhile
+            assignmentList.getItems().clear();
+            for (Assignment assignment : assignments) {
                 // Format: "ID: Description" for easy parsing
-                assignmentList.getItems().add(rs.getInt("id") + ": " + rs.getString("description"));
+                assignmentList.getItems().add(assignment.getId() + ": " + assignment.getDescription());
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        });
     }
 
     public void deleteAssignment() {
@@ -387,18 +328,16 @@ public class ModuleEditorController {
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION, "Delete assignment?", ButtonType.YES, ButtonType.NO);
         confirm.showAndWait();
         if (confirm.getResult() == ButtonType.YES) {
-            String sql = "DELETE FROM assignments WHERE id = ?";
-            try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                    PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, id);
-                stmt.executeUpdate();
+            int course = courseId;
+            FxAsync.load(DbExecutor.run(() -> DeletionDao.deleteAssignment(id, course)), null, v -> {
                 statusLbl.setText("Assignment Deleted.");
                 statusLbl.setStyle("-fx-text-fill: green;");
                 onModuleSelected(); // refresh
-            } catch (SQLException e) {
-                e.printStackTrace();
+            }, error -> {
+                error.printStackTrace();
                 statusLbl.setText("Error deleting assignment.");
-            }
+                statusLbl.setStyle("-fx-text-fill: red;");
+            });
         }
 
     }
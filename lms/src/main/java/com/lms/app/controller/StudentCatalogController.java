@@ -1,30 +1,39 @@
 package com.lms.app.controller;
 
+import com.lms.app.dao.CourseDao;
 import com.lms.app.model.Course;
+import com.lms.app.util.AlertHelper;
 import com.lms.app.util.UserSession;
-import com.lms.app.util.DatabaseConnection;
-import com.lms.app.util.FileHandler;
+import com.lms.app.util.DbExecutor;
+import com.lms.app.util.FxAsync;
+import com.lms.app.util.ImageCache;
+import com.lms.app.util.Refreshable;
 
+import javafx.animation.PauseTransition;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
-import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.scene.layout.BorderPane;
-import javafx.scene.layout.FlowPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * StudentCatalog Controller.
@@ -32,80 +41,224 @@ import java.sql.SQLException;
  * Purpose:
  * - (Student Only) Displays all available courses in the system.
  * - Allows Students to browse and find courses they might want to take.
+ * - The search box matches course titles, descriptions and module titles
+ * (`CourseDao.searchCatalog`), best matches first.
+ * - The grid is a `ListView` whose rows hold as many cards as fit the width,
+ * so only the visible cards exist as nodes and they are reused while
+ * scrolling. Opening the catalog costs the same for 10 courses or 10,000.
+ * - Loads `PAGE_SIZE` courses at a time; the next page is requested when the
+ * last rows scroll into view.
+ * - Card images are decoded in the background when a card is shown; a grey
+ * frame holds their place until then.
  * - (Future Scope) Handles course enrollment logic.
  */
-public class StudentCatalogController {
+public class StudentCatalogController implements Refreshable {
 
+    private static final double CARD_IMAGE_WIDTH = 180;
+    private static final double CARD_IMAGE_HEIGHT = 120;
+    private static final double CARD_WIDTH = 200;
+    private static final double CARD_GAP = 20;
+    private static final double ROW_HEIGHT = 250; // card plus gap; fixed, so the list never measures cells
+    private static final int PAGE_SIZE = 48;
+
+    @FXML
+    private TextField searchField;
+    @FXML
+    private ListView<List<Course>> courseRows;
     @FXML
-    private FlowPane courseGrid;
+    private Label emptyLabel;
+    @FXML
+    private ProgressIndicator loadingIndicator;
+
+    private final PauseTransition searchDelay = new PauseTransition(Duration.millis(300));
+    private final List<Course> courses = new ArrayList<>();
+    private final ObservableList<List<Course>> rows = FXCollections.observableArrayList();
+    private int columns = 1;
+    private String query = "";
+    private boolean loading;
+    private boolean exhausted = true;
+    private int generation; // Pages still in flight for an older search are dropped
 
     public void initialize() {
+        courseRows.setItems(rows);
+        courseRows.setFixedCellSize(ROW_HEIGHT);
+        courseRows.setFocusTraversable(false);
+        courseRows.setCellFactory(list -> new CourseRowCell());
+        courseRows.widthProperty().addListener((obs, oldVal, newVal) -> {
+            int fitting = Math.max(1, (int) ((newVal.doubleValue() - CARD_GAP * 2) / (CARD_WIDTH + CARD_GAP)));
+            if (fitting != columns) {
+                columns = fitting;
+                layoutRows(0);
+            }
+        });
+
+        searchDelay.setOnFinished(e -> loadCourses());
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> searchDelay.playFromStart());
+    }
+
+    @Override
+    public void refresh() {
+        searchDelay.stop();
         loadCourses();
     }
 
+    /**
+     * Starts again from the first page of the current search text.
+     */
     private void loadCourses() {
+        query = searchField.getText().trim();
+        generation++;
+        loading = false;
+        exhausted = false;
+        courses.clear();
+        rows.clear();
+        loadMore();
+    }
+
+    private void loadMore() {
+        if (loading || exhausted)
+            return;
+        loading = true;
+
         int deptId = UserSession.getInstance().getDepartmentId();
         int yearId = UserSession.getInstance().getAcademicYearId();
+        int requestGeneration = generation;
+        String text = query;
+        int offset = courses.size();
 
-        // Filter: Courses for (Student's Dept OR General) AND (Student's Year OR Active
-        // Years)
-        // Adjust logic: Usually specific courses are tied to specific years.
-        // Assuming courses with dept_id=1 are General (avail to all)
-        // Assuming courses with academic_year_id=1 are Default (avail to all, or handle
-        // as 'Current')
-
-        String sql = "SELECT * FROM courses WHERE " +
-                "(department_id = ? OR department_id = 1) " +
-                "AND (academic_year_id = ? OR academic_year_id = 1)";
-
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, deptId);
-            stmt.setInt(2, yearId);
-
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                Course course = new Course(
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getString("description"),
-                        rs.getInt("instructor_id"),
-                        rs.getBytes("course_image"));
-                courseGrid.getChildren().add(createCourseCard(course));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        FxAsync.load(DbExecutor.supply(() -> CourseDao.searchCatalog(deptId, yearId, text, offset, PAGE_SIZE)),
+                offset == 0 ? loadingIndicator : null, page -> {
+                    if (requestGeneration != generation)
+                        return;
+                    loading = false;
+                    exhausted = page.size() < PAGE_SIZE;
+                    int firstChangedRow = courses.size() / columns;
+                    courses.addAll(page);
+                    emptyLabel.setText(text.isEmpty() ? "No courses available." : "No courses match \"" + text + "\".");
+                    layoutRows(firstChangedRow);
+                }, error -> {
+                    if (requestGeneration != generation)
+                        return;
+                    loading = false;
+                    exhausted = true; // don't retry on every scroll; refresh() tries again
+                    error.printStackTrace();
+                    AlertHelper.showError("Database Error", "Could not load courses: " + error.getMessage());
+                });
+    }
+
+    /**
+     * Regroups the loaded courses into rows of `columns` cards, from row
+     * `fromRow` on; earlier rows are unchanged and keep their cells.
+     */
+    private void layoutRows(int fromRow) {
+        List<List<Course>> regrouped = new ArrayList<>();
+        for (int i = fromRow * columns; i < courses.size(); i += columns) {
+            regrouped.add(List.copyOf(courses.subList(i, Math.min(i + columns, courses.size()))));
+        }
+        if (fromRow == 0) {
+            rows.setAll(regrouped);
+        } else {
+            rows.remove(Math.min(fromRow, rows.size()), rows.size());
+            rows.addAll(regrouped);
         }
     }
 
-    private VBox createCourseCard(Course course) {
-        VBox card = new VBox(10);
-        card.setStyle(
-                "-fx-background-color: white; -fx-padding: 10; -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.1), 10, 0, 0, 0);");
-        card.setPrefWidth(200);
-        card.setAlignment(Pos.CENTER);
+    /**
+     * One row of the grid. Its cards are created once and refilled whenever
+     * the cell is reused for another row.
+     */
+    private class CourseRowCell extends ListCell<List<Course>> {
+        private final HBox box = new HBox(CARD_GAP);
+        private final List<CourseCard> cards = new ArrayList<>();
 
-        ImageView imgView = new ImageView();
-        imgView.setFitWidth(180);
-        imgView.setFitHeight(120);
-        imgView.setPreserveRatio(true);
+        CourseRowCell() {
+            box.setAlignment(Pos.CENTER_LEFT);
+            setStyle("-fx-background-color: transparent; -fx-padding: 10 20 10 20;");
+        }
 
-        if (course.getCourseImage() != null) {
-            imgView.setImage(FileHandler.getImageFromBytes(course.getCourseImage()));
-        } else {
-            // Placeholder logic or empty
+        @Override
+        protected void updateItem(List<Course> item, boolean empty) {
+            super.updateItem(item, empty);
+            if (empty || item == null) {
+                setGraphic(null);
+                return;
+            }
+            while (cards.size() < item.size()) {
+                CourseCard card = new CourseCard();
+                cards.add(card);
+                box.getChildren().add(card);
+            }
+            for (int i = 0; i < cards.size(); i++) {
+                CourseCard card = cards.get(i);
+                boolean used = i < item.size();
+                card.setVisible(used);
+                card.setManaged(used);
+                card.show(used ? item.get(i) : null);
+            }
+            setGraphic(box);
+
+            // Near the end of what is loaded: fetch the next page
+            if (getIndex() >= rows.size() - 2)
+                loadMore();
         }
+    }
 
-        Label titleLbl = new Label(course.getTitle());
-        titleLbl.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
+    /**
+     * A course card; `show` points it at another course.
+     */
+    private class CourseCard extends VBox {
+        private final ImageView imgView = new ImageView();
+        private final Label titleLbl = new Label();
+        private Course course;
 
-        Button openBtn = new Button("Open Course");
-        openBtn.setOnAction(e -> openCourseViewer(course));
+        CourseCard() {
+            super(10);
+            setStyle(
+                    "-fx-background-color: white; -fx-padding: 10; -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.1), 10, 0, 0, 0);");
+            setPrefWidth(CARD_WIDTH);
+            setMinWidth(CARD_WIDTH);
+            setAlignment(Pos.CENTER);
 
-        card.getChildren().addAll(imgView, titleLbl, openBtn);
-        return card;
+            imgView.setFitWidth(CARD_IMAGE_WIDTH);
+            imgView.setFitHeight(CARD_IMAGE_HEIGHT);
+            imgView.setPreserveRatio(true);
+            StackPane frame = new StackPane(imgView);
+            frame.setPrefSize(CARD_IMAGE_WIDTH, CARD_IMAGE_HEIGHT);
+            frame.setMaxSize(CARD_IMAGE_WIDTH, CARD_IMAGE_HEIGHT);
+            frame.setStyle("-fx-background-color: #f0f0f0;");
+
+            titleLbl.setStyle("-fx-font-weight: bold; -fx-font-size: 14px;");
+
+            Button openBtn = new Button("Open Course");
+            openBtn.setOnAction(e -> {
+                if (course != null)
+                    openCourseViewer(course);
+            });
+
+            getChildren().addAll(frame, titleLbl, openBtn);
+        }
+
+        void show(Course next) {
+            if (next == course)
+                return;
+            course = next;
+            if (next == null) {
+                imgView.setImage(null);
+                return;
+            }
+            titleLbl.setText(next.getTitle());
+
+            Image cached = ImageCache.peek("courses", next.getId(), next.getImageVersion(), CARD_IMAGE_WIDTH,
+                    CARD_IMAGE_HEIGHT);
+            imgView.setImage(cached); // Null shows the empty frame until the decode below finishes
+            if (cached != null || next.getCourseThumb() == null)
+                return;
+            FxAsync.load(DbExecutor.supply(() -> ImageCache.get("courses", next.getId(), next.getImageVersion(),
+                    next.getCourseThumb(), CARD_IMAGE_WIDTH, CARD_IMAGE_HEIGHT)), null, image -> {
+                        if (course == next) // Not reused for another course meanwhile
+                            imgView.setImage(image);
+                    });
+        }
     }
 
     private void openCourseViewer(Course course) {
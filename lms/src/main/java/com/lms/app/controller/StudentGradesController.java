@@ -1,26 +1,52 @@
 package com.lms.app.controller;
 
+import com.lms.app.dao.GradeDao;
+import com.lms.app.model.GradeItem;
+import com.lms.app.model.GradeSummary;
 import com.lms.app.util.UserSession;
-import com.lms.app.util.DatabaseConnection;
+import com.lms.app.util.DbExecutor;
+import com.lms.app.util.FxAsync;
+import com.lms.app.util.Refreshable;
 
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-
-public class StudentGradesController {
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Student Grades Controller.
+ * 
+ * Purpose:
+ * - Shows the student's standing per course and overall, read from the
+ * maintained `gradebook_summary` table (`GradeDao.findSummaries`).
+ * - Loads the individual submissions of a course only when that course is
+ * selected, and keeps them until the next refresh.
+ */
+public class StudentGradesController implements Refreshable {
 
     @FXML
     private Label totalScoreLbl;
 
+    @FXML
+    private TableView<GradeSummary> summaryTable;
+    @FXML
+    private TableColumn<GradeSummary, String> summaryCourseCol;
+    @FXML
+    private TableColumn<GradeSummary, String> earnedCol;
+    @FXML
+    private TableColumn<GradeSummary, String> possibleCol;
+    @FXML
+    private TableColumn<GradeSummary, String> percentCol;
+    @FXML
+    private TableColumn<GradeSummary, String> pendingCol;
+
     @FXML
     private TableView<GradeItem> gradesTable;
     @FXML
@@ -34,94 +60,88 @@ public class StudentGradesController {
     @FXML
     private TableColumn<GradeItem, String> feedbackCol;
 
+    private final Map<Integer, List<GradeItem>> detailsByCourse = new HashMap<>();
+
     public void initialize() {
-        courseCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().course));
-        assignmentCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().assignment));
-        scoreCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().score));
-        maxScoreCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().maxScore));
-        feedbackCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().feedback));
+        summaryCourseCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getCourse()));
+        earnedCol.setCellValueFactory(data -> new SimpleStringProperty(String.valueOf(data.getValue().getEarned())));
+        possibleCol.setCellValueFactory(data -> new SimpleStringProperty(String.valueOf(data.getValue().getPossible())));
+        percentCol.setCellValueFactory(data -> new SimpleStringProperty(formatPercent(data.getValue())));
+        pendingCol.setCellValueFactory(data -> new SimpleStringProperty(String.valueOf(data.getValue().getPendingCount())));
+        summaryTable.getSelectionModel().selectedItemProperty()
+                .addListener((obs, oldVal, newVal) -> showCourse(newVal));
+
+        courseCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getCourse()));
+        assignmentCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getAssignment()));
+        scoreCol.setCellValueFactory(data -> new SimpleStringProperty(
+                data.getValue().isGraded() ? String.valueOf(data.getValue().getScore()) : "Pending"));
+        maxScoreCol.setCellValueFactory(data -> new SimpleStringProperty(String.valueOf(data.getValue().getMaxScore())));
+        feedbackCol.setCellValueFactory(data -> new SimpleStringProperty(
+                data.getValue().getFeedback() != null ? data.getValue().getFeedback() : "-"));
+    }
 
+    @Override
+    public void refresh() {
         loadGrades();
     }
 
     private void loadGrades() {
         int studentId = UserSession.getInstance().getUserId();
-        ObservableList<GradeItem> list = FXCollections.observableArrayList();
-        int totalEarned = 0;
-        int totalPossible = 0;
-
-        // Query to join submissions -> assignments -> modules -> courses
-        // We want ALL assignments even if not submitted?
-        // User asked for "Student grades in all assignments".
-        // If not submitted, score is 0 or "Pending".
-        // Let's typically show what they HAVE submitted or what is graded.
-        // Or show everything. Let's show everything assigned to modules in courses the
-        // student might be in?
-        // Actually, there is no direct link "Student -> Course" table yet (enrollment).
-        // The system is simple: All students see all courses currently
-        // (StudentCatalog).
-        // So let's just query SUBMISSIONS for this student. If they haven't submitted,
-        // they don't have a grade yet.
-        // Wait, if they haven't submitted, they might want to know they have 0/100.
-        // But without an Enrollment table, we don't know which courses they are "in".
-        // So we will stick to: List all assignments where they have a submission record
-        // OR just list submissions.
-        // Listing submissions is safest given current architecture.
-
-        String sql = "SELECT c.title as course_title, a.description as assign_name, a.max_score, s.score, s.feedback_text "
-                +
-                "FROM submissions s " +
-                "JOIN assignments a ON s.assignment_id = a.id " +
-                "JOIN modules m ON a.module_id = m.id " +
-                "JOIN courses c ON m.course_id = c.id " +
-                "WHERE s.student_id = ?";
-
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, studentId);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                String cTitle = rs.getString("course_title");
-                String aName = rs.getString("assign_name");
-                int max = rs.getInt("max_score");
-                // Score can be null if not graded yet
-                int scoreVal = rs.getInt("score");
-                boolean isGraded = rs.getObject("score") != null;
-
-                String scoreStr = isGraded ? String.valueOf(scoreVal) : "Pending";
-                String feedback = rs.getString("feedback_text");
-                if (feedback == null)
-                    feedback = "-";
-
-                list.add(new GradeItem(cTitle, aName, scoreStr, String.valueOf(max), feedback));
-
-                if (isGraded) {
-                    totalEarned += scoreVal;
-                    totalPossible += max;
+        detailsByCourse.clear();
+        gradesTable.getItems().clear();
+
+        FxAsync.loadInto(summaryTable, DbExecutor.supply(() -> GradeDao.findSummaries(studentId)), summaries -> {
+            GradeSummary overall = null;
+            List<GradeSummary> courses = new ArrayList<>();
+            for (GradeSummary summary : summaries) {
+                if (summary.isOverall()) {
+                    overall = summary;
+                } else {
+                    courses.add(summary);
                 }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
 
-        gradesTable.setItems(list);
-        totalScoreLbl.setText(String.format("Total Score: %d / %d", totalEarned, totalPossible));
+            summaryTable.setItems(FXCollections.observableArrayList(courses));
+            if (overall == null) {
+                totalScoreLbl.setText("Total Score: 0 / 0");
+            } else {
+                totalScoreLbl.setText(String.format("Total Score: %d / %d (%s), %d pending", overall.getEarned(),
+                        overall.getPossible(), formatPercent(overall), overall.getPendingCount()));
+            }
+            if (!courses.isEmpty()) {
+                summaryTable.getSelectionModel().selectFirst();
+            }
+        });
     }
 
-    public static class GradeItem {
-        String course;
-        String assignment;
-        String score;
-        String maxScore;
-        String feedback;
-
-        public GradeItem(String c, String a, String s, String m, String f) {
-            this.course = c;
-            this.assignment = a;
-            this.score = s;
-            this.maxScore = m;
-            this.feedback = f;
+    /**
+     * Shows the submissions of the selected course, fetching them the first
+     * time the course is selected.
+     */
+    private void showCourse(GradeSummary course) {
+        if (course == null) {
+            gradesTable.getItems().clear();
+            return;
+        }
+        List<GradeItem> cached = detailsByCourse.get(course.getCourseId());
+        if (cached != null) {
+            gradesTable.setItems(FXCollections.observableArrayList(cached));
+            return;
         }
+
+        int studentId = UserSession.getInstance().getUserId();
+        FxAsync.loadInto(gradesTable,
+                DbExecutor.supply(() -> GradeDao.findByStudentAndCourse(studentId, course.getCourseId())), grades -> {
+                    detailsByCourse.put(course.getCourseId(), grades);
+                    // The selection may have moved on while this was loading
+                    if (summaryTable.getSelectionModel().getSelectedItem() == course) {
+                        gradesTable.setItems(FXCollections.observableArrayList(grades));
+                    }
+                });
+    }
+
+    private static String formatPercent(GradeSummary summary) {
+        Double percentage = summary.getPercentage();
+        return percentage == null ? "-" : String.format("%.1f%%", percentage);
     }
 }
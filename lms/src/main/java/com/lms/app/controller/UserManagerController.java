@@ -1,11 +1,23 @@
 package com.lms.app.controller;
 
+import com.lms.app.dao.DeletionDao;
+import com.lms.app.dao.ReferenceDataDao;
+import com.lms.app.dao.UserDao;
 import com.lms.app.model.User;
+import com.lms.app.model.UserFilter;
 import com.lms.app.model.DepartmentItem;
 import com.lms.app.model.AcademicYearItem;
 import com.lms.app.util.DatabaseConnection;
 import com.lms.app.util.AlertHelper;
+import com.lms.app.util.Avatars;
+import com.lms.app.util.DbExecutor;
+import com.lms.app.util.FileHandler;
+import com.lms.app.util.FxAsync;
+import com.lms.app.util.PagedTableLoader;
+import com.lms.app.util.PasswordHasher;
+import com.lms.app.util.Refreshable;
 
+import javafx.animation.PauseTransition;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -14,10 +26,18 @@ import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.shape.Circle;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.io.IOException;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * UserManager Controller.
@@ -28,17 +48,34 @@ import java.sql.*;
  * Departments.
  * - Allows Admins to Lock/Unlock accounts (preventing login).
  * - Allows Admins to Reset User passwords.
+ * - Lists users a page at a time, filtered in SQL by username, role and
+ * department.
  */
-public class UserManagerController {
+public class UserManagerController implements Refreshable {
+
+    private static final int AVATAR_SIZE = 24;
+    private static final int PAGE_SIZE = 100;
+    private static final String ALL_ROLES = "All roles";
 
     @FXML
     private TableView<User> userTable;
     @FXML
+    private TableColumn<User, Image> avatarCol;
+    @FXML
     private TableColumn<User, Integer> idCol;
     @FXML
     private TableColumn<User, String> usernameCol;
     @FXML
     private TableColumn<User, String> roleCol;
+    @FXML
+    private TableColumn<User, String> deptCol;
+
+    @FXML
+    private TextField searchField;
+    @FXML
+    private ComboBox<String> roleFilter;
+    @FXML
+    private ComboBox<DepartmentItem> deptFilter;
 
     @FXML
     private TextField usernameField;
@@ -46,20 +83,45 @@ public class UserManagerController {
     private PasswordField passwordField;
     @FXML
     private ComboBox<String> roleCombo;
+    @FXML
+    private ProgressBar deleteProgress;
+
+    private PagedTableLoader<User> userLoader;
+    private final Map<Integer, String> departmentNames = new HashMap<>();
+    private final PauseTransition searchDelay = new PauseTransition(Duration.millis(300));
+    private boolean updatingFilters;
+    private boolean addingUser;
 
     public void initialize() {
+        avatarCol.setCellValueFactory(
+                cellData -> new javafx.beans.property.SimpleObjectProperty<>(avatarOf(cellData.getValue())));
+        avatarCol.setCellFactory(col -> new TableCell<>() {
+            private final ImageView view = new ImageView();
+            {
+                view.setFitWidth(AVATAR_SIZE);
+                view.setFitHeight(AVATAR_SIZE);
+                view.setClip(new Circle(AVATAR_SIZE / 2.0, AVATAR_SIZE / 2.0, AVATAR_SIZE / 2.0));
+            }
+
+            @Override
+            protected void updateItem(Image item, boolean empty) {
+                super.updateItem(item, empty);
+                view.setImage(empty ? null : item);
+                setGraphic(empty ? null : view);
+            }
+        });
         idCol.setCellValueFactory(
                 cellData -> new javafx.beans.property.SimpleObjectProperty<>(cellData.getValue().getId()));
         usernameCol.setCellValueFactory(
                 cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getUsername()));
         roleCol.setCellValueFactory(
                 cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getRole()));
+        deptCol.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(
+                departmentNames.get(cellData.getValue().getDepartmentId())));
 
         roleCombo.getItems().addAll("Admin", "Instructor", "Student", "Locked");
         roleCombo.getSelectionModel().select("Student");
 
-        loadUsers();
-
         // Double click to edit
         userTable.setRowFactory(tv -> {
             TableRow<User> row = new TableRow<>();
@@ -79,29 +141,74 @@ public class UserManagerController {
         deleteItem.setOnAction(e -> deleteSelectedUser());
         cm.getItems().addAll(editItem, deleteItem);
         userTable.setContextMenu(cm);
+
+        // After the row factory: the loader wraps it
+        userLoader = new PagedTableLoader<>(userTable, PAGE_SIZE);
+
+        // Filters
+        roleFilter.getItems().addAll(ALL_ROLES, "Admin", "Instructor", "Student", "Locked");
+        roleFilter.getSelectionModel().selectFirst();
+        roleFilter.valueProperty().addListener((obs, oldVal, newVal) -> onFilterChanged());
+        deptFilter.valueProperty().addListener((obs, oldVal, newVal) -> onFilterChanged());
+        // Wait for a pause in typing rather than querying on every key
+        searchDelay.setOnFinished(e -> loadUsers());
+        searchField.textProperty().addListener((obs, oldVal, newVal) -> {
+            if (!updatingFilters)
+                searchDelay.playFromStart();
+        });
+    }
+
+    @Override
+    public void refresh() {
+        FxAsync.load(DbExecutor.supply(ReferenceDataDao::getDepartments), null, departments -> {
+            departmentNames.clear();
+            departments.forEach(d -> departmentNames.put(d.getId(), d.getName()));
+
+            DepartmentItem selected = deptFilter.getValue();
+            List<DepartmentItem> items = new ArrayList<>();
+            items.add(new DepartmentItem(0, "All departments"));
+            items.addAll(departments);
+
+            updatingFilters = true;
+            deptFilter.setItems(FXCollections.observableArrayList(items));
+            deptFilter.setValue(items.stream().filter(d -> selected != null && d.getId() == selected.getId())
+                    .findFirst().orElse(items.get(0)));
+            updatingFilters = false;
+            loadUsers();
+        });
+    }
+
+    private void onFilterChanged() {
+        if (!updatingFilters)
+            loadUsers();
     }
 
     private void loadUsers() {
-        ObservableList<User> list = FXCollections.observableArrayList();
-        String sql = "SELECT * FROM users";
-
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql);
-                ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                list.add(new User(
-                        rs.getInt("id"),
-                        rs.getString("username"),
-                        rs.getString("role"),
-                        rs.getBytes("profile_image"),
-                        rs.getInt("department_id"),
-                        rs.getInt("academic_year_id")));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        userTable.setItems(list);
+        if (deptFilter.getValue() == null)
+            return; // refresh() has not loaded the filters yet
+        String role = ALL_ROLES.equals(roleFilter.getValue()) ? null : roleFilter.getValue();
+        Integer deptId = deptFilter.getValue().getId() != 0 ? deptFilter.getValue().getId() : null;
+        UserFilter filter = new UserFilter(searchField.getText(), role, deptId);
+        userLoader.load((after, limit) -> UserDao.findPage(filter, after, limit));
+    }
+
+    @FXML
+    private void clearFilters() {
+        searchDelay.stop();
+        updatingFilters = true;
+        searchField.clear();
+        roleFilter.getSelectionModel().selectFirst();
+        deptFilter.getSelectionModel().selectFirst();
+        updatingFilters = false;
+        loadUsers();
+    }
+
+    /**
+     * Placeholder avatars only: profile pictures are loaded when a user is
+     * opened (`UserProfileController`), never for the whole list.
+     */
+    private static Image avatarOf(User user) {
+        return Avatars.placeholder(user.getUsername(), AVATAR_SIZE);
     }
 
     public void addUser() {
@@ -114,21 +221,31 @@ public class UserManagerController {
             return;
         }
 
-        String sql = "INSERT INTO users (username, password, role) VALUES (?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, user);
-            stmt.setString(2, pass);
-            stmt.setString(3, role);
-            stmt.executeUpdate();
+        if (addingUser)
+            return;
+        addingUser = true;
 
+        // Hashing takes a noticeable fraction of a second; keep it off the FX thread
+        FxAsync.load(DbExecutor.run(() -> {
+            String sql = "INSERT INTO users (username, password, role) VALUES (?, ?, ?)";
+            String hash = PasswordHasher.hash(pass);
+            try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, user);
+                stmt.setString(2, hash);
+                stmt.setString(3, role);
+                stmt.executeUpdate();
+            }
+        }), null, v -> {
+            addingUser = false;
             usernameField.clear();
             passwordField.clear();
             loadUsers();
-        } catch (SQLException e) {
+        }, e -> {
+            addingUser = false;
             showAlert("Error", "Could not add user. Username might be taken.");
             e.printStackTrace();
-        }
+        });
     }
 
     @FXML
@@ -150,99 +267,13 @@ public class UserManagerController {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setContentText("Delete user " + selected.getUsername() + "?");
         if (alert.showAndWait().get() == ButtonType.OK) {
-
-            try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
-                conn.setAutoCommit(false); // Transaction
-                try {
-                    // 1. Delete Submissions (Student)
-                    try (PreparedStatement stmt = conn
-                            .prepareStatement("DELETE FROM submissions WHERE student_id = ?")) {
-                        stmt.setInt(1, selected.getId());
-                        stmt.executeUpdate();
-                    }
-
-                    // 2. Handle Instructor (Courses -> Modules -> Assignments -> Submissions)
-                    // For simplicity, we might just UNASSIGN courses or Cascade Delete hard.
-                    // Let's go with Cascade Delete to be clean, but complex.
-                    // Step 2a: Find courses by this instructor
-                    String getCourses = "SELECT id FROM courses WHERE instructor_id = ?";
-                    try (PreparedStatement courseStmt = conn.prepareStatement(getCourses)) {
-                        courseStmt.setInt(1, selected.getId());
-                        ResultSet rs = courseStmt.executeQuery();
-                        while (rs.next()) {
-                            int courseId = rs.getInt("id");
-                            // Delete modules for course
-                            // (We need to delete assignments and submissions for those modules too...
-                            // this gets very deep. simpler to just SET NULL for instructor_id if schema
-                            // allows,
-                            // OR delete course but rely on other cascades.
-                            // Let's try deletion of course and rely on DB/Manual.
-                            // Since we didn't add deep cascade code everywhere, let's just delete the
-                            // course record
-                            // and let the orphan modules stay or delete them?)
-
-                            // BETTER: Just delete the course row. If foreign keys fail, we catch it.
-                            // But wait, modules refer to course_id.
-                            // Let's manually delete modules for this course.
-                            String getMods = "SELECT id FROM modules WHERE course_id = ?";
-                            try (PreparedStatement modStmt = conn.prepareStatement(getMods)) {
-                                modStmt.setInt(1, courseId);
-                                ResultSet modRs = modStmt.executeQuery();
-                                while (modRs.next()) {
-                                    int modId = modRs.getInt("id");
-                                    // Delete assignments
-                                    String getAss = "SELECT id FROM assignments WHERE module_id = ?";
-                                    try (PreparedStatement assStmt = conn.prepareStatement(getAss)) {
-                                        assStmt.setInt(1, modId);
-                                        ResultSet assRs = assStmt.executeQuery();
-                                        while (assRs.next()) {
-                                            int assId = assRs.getInt("id");
-                                            try (PreparedStatement subStmt = conn.prepareStatement(
-                                                    "DELETE FROM submissions WHERE assignment_id = ?")) {
-                                                subStmt.setInt(1, assId);
-                                                subStmt.executeUpdate();
-                                            }
-                                        }
-                                    }
-                                    try (PreparedStatement delAss = conn
-                                            .prepareStatement("DELETE FROM assignments WHERE module_id = ?")) {
-                                        delAss.setInt(1, modId);
-                                        delAss.executeUpdate();
-                                    }
-                                }
-                            }
-                            try (PreparedStatement delMod = conn
-                                    .prepareStatement("DELETE FROM modules WHERE course_id = ?")) {
-                                delMod.setInt(1, courseId);
-                                delMod.executeUpdate();
-                            }
-                        }
-                    }
-                    try (PreparedStatement delCourse = conn
-                            .prepareStatement("DELETE FROM courses WHERE instructor_id = ?")) {
-                        delCourse.setInt(1, selected.getId());
-                        delCourse.executeUpdate();
-                    }
-
-                    // 3. Finally delete User
-                    String sql = "DELETE FROM users WHERE id = ?";
-                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                        stmt.setInt(1, selected.getId());
-                        stmt.executeUpdate();
-                    }
-
-                    conn.commit();
-                    loadUsers();
-                } catch (SQLException e) {
-                    conn.rollback();
-                    e.printStackTrace();
-                    showAlert("Error", "Could not delete user: " + e.getMessage());
-                } finally {
-                    conn.setAutoCommit(true);
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+            int userId = selected.getId();
+            FileHandler.ProgressListener progress = FxAsync.progressTo(deleteProgress);
+            FxAsync.load(DbExecutor.run(() -> DeletionDao.deleteUser(userId, progress)), deleteProgress,
+                    v -> loadUsers(), e -> {
+                        e.printStackTrace();
+                        showAlert("Error", "Could not delete user: " + e.getMessage());
+                    });
         }
     }
 
@@ -255,6 +286,7 @@ public class UserManagerController {
 
             UserProfileController controller = loader.getController();
             controller.setTargetUserId(user.getId());
+            controller.refresh(); // not shown through ViewRegistry
 
             Stage stage = new Stage();
             stage.setTitle("Edit User: " + user.getUsername());
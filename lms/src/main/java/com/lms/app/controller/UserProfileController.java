@@ -1,10 +1,22 @@
 package com.lms.app.controller;
 
+import com.lms.app.dao.DeletionDao;
+import com.lms.app.dao.ReferenceDataDao;
+import com.lms.app.dao.StoredFileDao;
+import com.lms.app.dao.UserDao;
 import com.lms.app.model.DepartmentItem;
 import com.lms.app.model.AcademicYearItem;
+import com.lms.app.model.User;
+import com.lms.app.model.UserProfile;
 import com.lms.app.util.UserSession;
+import com.lms.app.util.BlobColumn;
 import com.lms.app.util.DatabaseConnection;
-import com.lms.app.util.FileHandler;
+import com.lms.app.util.DbExecutor;
+import com.lms.app.util.FxAsync;
+import com.lms.app.util.ImageCache;
+import com.lms.app.util.PasswordHasher;
+import com.lms.app.util.Refreshable;
+import com.lms.app.util.Thumbnails;
 
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
@@ -12,10 +24,12 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.stage.FileChooser;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 
 /**
  * UserProfile Controller.
@@ -26,7 +40,7 @@ import java.sql.SQLException;
  * - Handles input validation for password changes (matching new password
  * fields).
  */
-public class UserProfileController {
+public class UserProfileController implements Refreshable {
 
     @FXML
     private TextField userIdField;
@@ -52,48 +66,36 @@ public class UserProfileController {
 
     public void initialize() {
         roleCombo.getItems().addAll("Admin", "Instructor", "Student", "Locked");
-        loadDepartments();
-        loadAcademicYears();
     }
 
-    private void loadDepartments() {
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement("SELECT id, name FROM departments")) {
-            ResultSet rs = stmt.executeQuery();
-            deptCombo.getItems().add(new DepartmentItem(1, "General")); // Default
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                if (id == 1)
-                    continue; // Skip if already added
-                deptCombo.getItems().add(new DepartmentItem(id, rs.getString("name")));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+    private void fillDepartments(List<DepartmentItem> departments) {
+        deptCombo.getItems().setAll(new DepartmentItem(1, "General")); // Default
+        departments.stream()
+                .filter(d -> d.getId() != 1) // Skip if already added
+                .forEach(deptCombo.getItems()::add);
     }
 
-    private void loadAcademicYears() {
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement("SELECT id, year_name FROM academic_years")) {
-            ResultSet rs = stmt.executeQuery();
-            yearCombo.getItems().add(new AcademicYearItem(1, "Default"));
-            while (rs.next()) {
-                int id = rs.getInt("id");
-                if (id == 1)
-                    continue;
-                yearCombo.getItems().add(new AcademicYearItem(id, rs.getString("year_name")));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+    private void fillAcademicYears(List<AcademicYearItem> years) {
+        yearCombo.getItems().setAll(new AcademicYearItem(1, "Default"));
+        years.stream()
+                .filter(y -> y.getId() != 1)
+                .forEach(yearCombo.getItems()::add);
     }
 
+    /**
+     * Selects whose profile is shown. The data is loaded by `refresh()`
+     * (called by `ViewRegistry` right after this on every show).
+     */
     public void setTargetUserId(int userId) {
         this.targetUserId = userId;
-        loadProfile();
         checkPermissions();
     }
 
+    @Override
+    public void refresh() {
+        loadProfile();
+    }
+
     private void checkPermissions() {
         boolean isAdmin = UserSession.getInstance().getRole().equals("Admin");
         boolean isOwnProfile = UserSession.getInstance().getUserId() == targetUserId;
@@ -120,33 +122,39 @@ public class UserProfileController {
     }
 
     private void loadProfile() {
-        String sql = "SELECT * FROM users WHERE id = ?";
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, targetUserId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                userIdField.setText(String.valueOf(targetUserId));
-                usernameField.setText(rs.getString("username"));
-                passwordField.setText(rs.getString("password"));
-                roleCombo.setValue(rs.getString("role"));
-
-                int deptId = rs.getInt("department_id");
-                deptCombo.getItems().stream().filter(d -> d.getId() == deptId).findFirst()
-                        .ifPresent(deptCombo::setValue);
-
-                int yearId = rs.getInt("academic_year_id");
-                yearCombo.getItems().stream().filter(y -> y.getId() == yearId).findFirst()
-                        .ifPresent(yearCombo::setValue);
-
-                byte[] imgData = rs.getBytes("profile_image");
-                if (imgData != null && imgData.length > 0) {
-                    profileImageView.setImage(FileHandler.getImageFromBytes(imgData));
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        selectedImageFile = null;
+        profileImageView.setImage(null);
+
+        int userId = targetUserId;
+        double width = profileImageView.getFitWidth();
+        double height = profileImageView.getFitHeight();
+        // The combos are filled in the same callback, before their values are picked
+        FxAsync.load(DbExecutor.supply(() -> {
+            UserProfile profile = UserDao.findProfile(userId);
+            Image image = profile == null ? null
+                    : ImageCache.get("users", userId, profile.getImageVersion(), profile.getThumb(), width, height);
+            return new ProfileData(ReferenceDataDao.getDepartments(), ReferenceDataDao.getAcademicYears(), profile,
+                    image);
+        }), null, data -> {
+            fillDepartments(data.departments());
+            fillAcademicYears(data.years());
+            if (data.profile() == null || userId != targetUserId)
+                return;
+
+            User user = data.profile().getUser();
+            userIdField.setText(String.valueOf(userId));
+            usernameField.setText(user.getUsername());
+            passwordField.clear(); // Only a hash is stored; blank keeps it
+            roleCombo.setValue(user.getRole());
+
+            deptCombo.getItems().stream().filter(d -> d.getId() == user.getDepartmentId()).findFirst()
+                    .ifPresent(deptCombo::setValue);
+            yearCombo.getItems().stream().filter(y -> y.getId() == user.getAcademicYearId()).findFirst()
+                    .ifPresent(yearCombo::setValue);
+
+            if (selectedImageFile == null) // keep a preview chosen while loading
+                profileImageView.setImage(data.image());
+        });
     }
 
     public void chooseImage() {
@@ -154,47 +162,87 @@ public class UserProfileController {
         fc.getExtensionFilters().add(new FileChooser.ExtensionFilter("Images", "*.png", "*.jpg", "*.jpeg"));
         selectedImageFile = fc.showOpenDialog(null);
         if (selectedImageFile != null) {
-            profileImageView.setImage(new Image(selectedImageFile.toURI().toString()));
+            // Preview decoded at display size, in the background
+            profileImageView.setImage(new Image(selectedImageFile.toURI().toString(),
+                    profileImageView.getFitWidth(), profileImageView.getFitHeight(), true, true, true));
         }
     }
 
     public void saveProfile() {
-        String newPass = passwordField.getText();
+        String password = passwordField.getText();
         String role = roleCombo.getValue();
         int deptId = (deptCombo.getValue() != null) ? deptCombo.getValue().getId() : 1;
         int yearId = (yearCombo.getValue() != null) ? yearCombo.getValue().getId() : 1;
+        File imageFile = selectedImageFile;
+        int userId = targetUserId;
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
-            if (selectedImageFile != null) {
-                byte[] imgData = FileHandler.readFileToBytes(selectedImageFile);
-                String sql = "UPDATE users SET password = ?, profile_image = ?, role = ?, department_id = ?, academic_year_id = ? WHERE id = ?";
-                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    stmt.setString(1, newPass);
-                    stmt.setBytes(2, imgData);
-                    stmt.setString(3, role);
-                    stmt.setInt(4, deptId);
-                    stmt.setInt(5, yearId);
-                    stmt.setInt(6, targetUserId);
-                    stmt.executeUpdate();
-                }
-            } else {
-                String sql = "UPDATE users SET password = ?, role = ?, department_id = ?, academic_year_id = ? WHERE id = ?";
-                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                    stmt.setString(1, newPass);
-                    stmt.setString(2, role);
-                    stmt.setInt(3, deptId);
-                    stmt.setInt(4, yearId);
-                    stmt.setInt(5, targetUserId);
-                    stmt.executeUpdate();
-                }
-            }
-
+        // Hashing and the image upload take a while; keep them off the FX thread
+        saveBtn.setDisable(true);
+        FxAsync.load(DbExecutor.run(() -> {
+            // Blank keeps the current password (COALESCE in the UPDATEs)
+            String newHash = password.isEmpty() ? null : PasswordHasher.hash(password);
+            updateProfile(userId, newHash, role, deptId, yearId, imageFile);
+        }), null, v -> {
+            saveBtn.setDisable(false);
             Alert a = new Alert(Alert.AlertType.INFORMATION);
             a.setContentText("Profile Updated Successfully!");
             a.show();
-
-        } catch (SQLException e) {
+        }, e -> {
+            saveBtn.setDisable(false);
             e.printStackTrace();
+            Alert err = new Alert(Alert.AlertType.ERROR, "Could not update profile: " + e.getMessage());
+            err.show();
+        });
+    }
+
+    private static void updateProfile(int targetUserId, String newHash, String role, int deptId, int yearId,
+            File selectedImageFile) throws SQLException {
+        if (selectedImageFile == null) {
+            String sql = "UPDATE users SET password = COALESCE(?, password), role = ?, department_id = ?, academic_year_id = ? WHERE id = ?";
+            try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, newHash);
+                stmt.setString(2, role);
+                stmt.setInt(3, deptId);
+                stmt.setInt(4, yearId);
+                stmt.setInt(5, targetUserId);
+                stmt.executeUpdate();
+            }
+            return;
+        }
+
+        byte[] thumb;
+        try {
+            thumb = Thumbnails.create(selectedImageFile, Thumbnails.PROFILE_SIZE);
+        } catch (IOException e) {
+            throw new SQLException("Could not read " + selectedImageFile.getName(), e);
+        }
+
+        // Old picture released and new one bound together with the UPDATE
+        String sql = "UPDATE users SET password = COALESCE(?, password), profile_image = ?, profile_image_hash = ?, profile_thumb = ?, profile_image_version = profile_image_version + 1, role = ?, department_id = ?, academic_year_id = ? WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = DatabaseConnection.prepareStreaming(conn, sql)) {
+                StoredFileDao.release(conn, BlobColumn.PROFILE_IMAGE, "id = ?", targetUserId);
+                stmt.setString(1, newHash);
+                stmt.setBytes(4, thumb);
+                stmt.setString(5, role);
+                stmt.setInt(6, deptId);
+                stmt.setInt(7, yearId);
+                stmt.setInt(8, targetUserId);
+                try (InputStream in = StoredFileDao.bindFile(conn, stmt, 2, 3, selectedImageFile, null)) {
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } catch (IOException e) {
+                conn.rollback();
+                throw new SQLException("Could not read " + selectedImageFile.getName(), e);
+            } finally {
+                conn.setAutoCommit(true);
+            }
         }
     }
 
@@ -205,12 +253,8 @@ public class UserProfileController {
         alert.setContentText("This action cannot be undone.");
 
         if (alert.showAndWait().get() == ButtonType.OK) {
-            String sql = "DELETE FROM users WHERE id = ?";
-            try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                    PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setInt(1, targetUserId);
-                stmt.executeUpdate();
-
+            int userId = targetUserId;
+            FxAsync.load(DbExecutor.run(() -> DeletionDao.deleteUser(userId, null)), null, v -> {
                 // If user deleted themselves, logout
                 if (targetUserId == UserSession.getInstance().getUserId()) {
 
@@ -227,9 +271,15 @@ public class UserProfileController {
                         ((javafx.stage.Stage) saveBtn.getScene().getWindow()).close();
                     }
                 }
-            } catch (SQLException e) {
+            }, e -> {
                 e.printStackTrace();
-            }
+                Alert err = new Alert(Alert.AlertType.ERROR, "Could not delete user: " + e.getMessage());
+                err.show();
+            });
         }
     }
+
+    private record ProfileData(List<DepartmentItem> departments, List<AcademicYearItem> years,
+            UserProfile profile, Image image) {
+    }
 }
@@ -0,0 +1,160 @@
+package com.lms.app.dao;
+
+import com.lms.app.model.Assignment;
+import com.lms.app.util.DatabaseConnection;
+import com.lms.app.util.FileHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AssignmentDao.
+ * 
+ * Purpose:
+ * - Reads and inserts of the `assignments` table.
+ * - Instruction files are streamed from disk rather than read into memory.
+ * - Methods are synchronous; call them through `DbExecutor`.
+ */
+public class AssignmentDao {
+
+    /**
+     * Lists every assignment of a course, ordered by module, without any
+     * submission data (e.g. for an instructor's filter).
+     */
+    public static List<Assignment> findByCourse(int courseId) throws SQLException {
+        List<Assignment> list = new ArrayList<>();
+        String sql = "SELECT a.id, a.module_id, a.description, a.max_score, a.due_date "
+                + "FROM assignments a JOIN modules m ON a.module_id = m.id "
+                + "WHERE m.course_id = ? ORDER BY a.module_id, a.id";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, courseId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new Assignment(
+                            rs.getInt("id"),
+                            rs.getInt("module_id"),
+                            rs.getString("description"),
+                            rs.getInt("max_score"),
+                            rs.getDate("due_date")));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Lists the assignments of one module, without any submission data (the
+     * module editor's list).
+     */
+    public static List<Assignment> findByModule(int moduleId) throws SQLException {
+        List<Assignment> list = new ArrayList<>();
+        String sql = "SELECT id, module_id, description, max_score, due_date FROM assignments "
+                + "WHERE module_id = ? ORDER BY id";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, moduleId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new Assignment(
+                            rs.getInt("id"),
+                            rs.getInt("module_id"),
+                            rs.getString("description"),
+                            rs.getInt("max_score"),
+                            rs.getDate("due_date")));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Lists every assignment of a course in one query, ordered by module, with
+     * `studentId`'s submission status.
+     * 
+     * Logic:
+     * - `has_file` is an IS NOT NULL test, so the instruction files themselves
+     * are never read.
+     * - Submissions are aggregated per assignment in a derived table and joined
+     * once, instead of one lookup per assignment.
+     * 
+     * @param studentId The viewing student; other users simply get no
+     *                  submissions.
+     */
+    public static List<Assignment> findByCourse(int courseId, int studentId) throws SQLException {
+        List<Assignment> list = new ArrayList<>();
+        String sql = "SELECT a.id, a.module_id, a.description, a.max_score, a.due_date, a.file_type, "
+                + "(a.assignment_data IS NOT NULL OR a.assignment_hash IS NOT NULL) AS has_file, "
+                + "COALESCE(s.submission_count, 0) AS submission_count, s.best_score "
+                + "FROM assignments a "
+                + "JOIN modules m ON a.module_id = m.id "
+                + "LEFT JOIN (SELECT assignment_id, COUNT(*) AS submission_count, MAX(score) AS best_score "
+                + "FROM submissions WHERE student_id = ? GROUP BY assignment_id) s ON s.assignment_id = a.id "
+                + "WHERE m.course_id = ? "
+                + "ORDER BY a.module_id, a.id";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, studentId);
+            stmt.setInt(2, courseId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new Assignment(
+                            rs.getInt("id"),
+                            rs.getInt("module_id"),
+                            rs.getString("description"),
+                            rs.getInt("max_score"),
+                            rs.getDate("due_date"),
+                            rs.getString("file_type"),
+                            rs.getBoolean("has_file"),
+                            rs.getInt("submission_count"),
+                            rs.getObject("best_score", Integer.class)));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Inserts an assignment, storing the optional instructions `file` via
+     * `StoredFileDao.bindFile` in the same transaction as the row.
+     * 
+     * @param file     The instructions file, or null for none.
+     * @param listener Upload progress callback; may be null.
+     */
+    public static void insert(int moduleId, String description, int maxScore, LocalDate dueDate, File file,
+            FileHandler.ProgressListener listener) throws SQLException {
+        String sql = "INSERT INTO assignments (module_id, description, max_score, due_date, assignment_data, assignment_hash, file_type) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = DatabaseConnection.prepareStreaming(conn, sql)) {
+                stmt.setInt(1, moduleId);
+                stmt.setString(2, description);
+                stmt.setInt(3, maxScore);
+                stmt.setDate(4, Date.valueOf(dueDate));
+                // file_type can be null
+                stmt.setString(7, file != null ? FileHandler.getFileType(file.getName(), "file") : null);
+                try (InputStream in = StoredFileDao.bindFile(conn, stmt, 5, 6, file, listener)) {
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } catch (IOException e) {
+                conn.rollback();
+                throw new SQLException("Could not read " + file.getName(), e);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.lms.app.dao;
+
+import com.lms.app.model.Course;
+import com.lms.app.util.AppConfig;
+import com.lms.app.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CatalogCache.
+ *
+ * Purpose:
+ * - Keeps catalog pages (`CourseDao.searchCatalog` without a search text)
+ * keyed by (department, academic year), the only inputs of the visibility
+ * rule, so every student of a cohort signing in on this client, and every
+ * reopen of the catalog, reuses the same rows.
+ * - Every course insert or delete bumps `catalog_version.version` through
+ * `invalidate`, and calls `clear` once committed. The cached version is
+ * compared with it (one primary-key lookup, at most every
+ * `cache.catalog.checkSeconds`, never while holding the lock) and all pages
+ * are dropped when it moved.
+ * - Each drop starts a new generation; a page loaded during an older one is
+ * returned but not cached, so rows read before a commit are not kept.
+ * - Pages are also dropped `cache.catalog.ttlSeconds` after they were loaded,
+ * which bounds staleness for changes made outside the application.
+ */
+public class CatalogCache {
+
+    private static final long CHECK_INTERVAL_MILLIS = AppConfig.getInt("cache.catalog.checkSeconds", 30) * 1000L;
+    private static final long TTL_MILLIS = AppConfig.getInt("cache.catalog.ttlSeconds", 300) * 1000L;
+
+    /**
+     * Runs the catalog query on a cache miss.
+     */
+    @FunctionalInterface
+    interface PageLoader {
+        List<Course> load() throws SQLException;
+    }
+
+    private record Key(int departmentId, int academicYearId, int offset, int limit) {
+    }
+
+    private record Entry(List<Course> courses, long loadedAt) {
+    }
+
+    private static final Map<Key, Entry> pages = new HashMap<>();
+    private static long loadedVersion = -1;
+    private static long lastCheckedAt;
+    private static long generation;
+
+    /**
+     * Returns the cached page, or loads and caches it.
+     */
+    static List<Course> page(int departmentId, int academicYearId, int offset, int limit, PageLoader loader)
+            throws SQLException {
+        Key key = new Key(departmentId, academicYearId, offset, limit);
+        long now = System.currentTimeMillis();
+        long startGeneration;
+        boolean checkVersion;
+        synchronized (CatalogCache.class) {
+            startGeneration = generation;
+            checkVersion = loadedVersion < 0 || now - lastCheckedAt >= CHECK_INTERVAL_MILLIS;
+        }
+
+        if (checkVersion) {
+            long version = readVersion();
+            synchronized (CatalogCache.class) {
+                // A clear() while reading means the version may already be old
+                if (generation == startGeneration) {
+                    if (version != loadedVersion) {
+                        dropPages();
+                        loadedVersion = version;
+                    }
+                    lastCheckedAt = now;
+                }
+                startGeneration = generation;
+            }
+        }
+
+        synchronized (CatalogCache.class) {
+            Entry entry = pages.get(key);
+            if (generation == startGeneration && entry != null && now - entry.loadedAt() < TTL_MILLIS)
+                return entry.courses();
+        }
+
+        List<Course> courses = List.copyOf(loader.load());
+        synchronized (CatalogCache.class) {
+            if (generation == startGeneration)
+                pages.put(key, new Entry(courses, now));
+        }
+        return courses;
+    }
+
+    /**
+     * Records that the catalog changed. Call on the connection (and inside the
+     * transaction) that inserted or deleted courses, then call `clear` after
+     * the commit; other clients pick the change up on their next version
+     * check, this one immediately.
+     */
+    public static void invalidate(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE catalog_version SET version = version + 1 WHERE id = 1");
+        }
+    }
+
+    public static synchronized void clear() {
+        dropPages();
+        loadedVersion = -1;
+    }
+
+    private static void dropPages() {
+        pages.clear();
+        generation++;
+    }
+
+    private static long readVersion() throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement("SELECT version FROM catalog_version WHERE id = 1");
+                ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong("version") : 0;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.lms.app.dao;
+
+import com.lms.app.model.Course;
+import com.lms.app.util.BlobColumn;
+import com.lms.app.util.DatabaseConnection;
+import com.lms.app.util.Thumbnails;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CourseDao.
+ * 
+ * Purpose:
+ * - All reads of the `courses` table used by the course screens, and course
+ * creation.
+ * - Methods are synchronous and throw `SQLException`; controllers call them
+ * through `DbExecutor` so they never run on the JavaFX Application Thread.
+ * - Reads the cover thumbnail, never the full-size `course_image`.
+ */
+public class CourseDao {
+
+    private static final String COLUMNS = "id, title, description, instructor_id, course_thumb, "
+            + "course_image_version, (course_image IS NOT NULL OR course_image_hash IS NOT NULL) AS has_image";
+
+    /**
+     * InnoDB's default `innodb_ft_min_token_size`; shorter words are not indexed.
+     */
+    private static final int MIN_SEARCH_WORD = 3;
+
+    public static List<Course> findByInstructor(int instructorId) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM courses WHERE instructor_id = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, instructorId);
+            return mapCourses(conn, stmt.executeQuery());
+        }
+    }
+
+    /**
+     * One page of the catalog, optionally filtered by a search text.
+     * 
+     * Logic:
+     * 1. Visible courses: the student's department or General (id 1), and
+     * their academic year or Default (id 1). Written as `IN` lists so MySQL
+     * reads at most four ranges of `idx_courses_catalog` instead of the table.
+     * 2. Without a search text: all visible courses by title, served from
+     * `CatalogCache` when this page was loaded recently.
+     * 3. With one: every word must match as a prefix (`+word*` in BOOLEAN
+     * MODE) in the course title/description or in one of its module titles,
+     * using the FULLTEXT indexes `ft_courses_text` and `ft_modules_title`.
+     * Course matches weigh twice as much as module matches; best first.
+     * 4. Words shorter than `MIN_SEARCH_WORD` are not indexed by InnoDB; if
+     * the text has only such words, it is matched as a title prefix instead.
+     * 
+     * @param query  Text typed by the student; blank for no filter.
+     * @param offset Rows to skip (page number times `limit`).
+     */
+    public static List<Course> searchCatalog(int departmentId, int academicYearId, String query, int offset,
+            int limit) throws SQLException {
+        String visible = "department_id IN (?, 1) AND academic_year_id IN (?, 1)";
+        String match = toBooleanQuery(query);
+        String sql;
+        List<Object> params = new ArrayList<>();
+        if (query == null || query.isBlank()) {
+            String browse = "SELECT " + COLUMNS + " FROM courses WHERE " + visible
+                    + " ORDER BY title, id LIMIT ? OFFSET ?";
+            return CatalogCache.page(departmentId, academicYearId, offset, limit,
+                    () -> runQuery(browse, List.of(departmentId, academicYearId, limit, offset)));
+        } else if (match == null) {
+            sql = "SELECT " + COLUMNS + " FROM courses WHERE " + visible + " AND title LIKE ? "
+                    + "ORDER BY title, id LIMIT ? OFFSET ?";
+            params.addAll(List.of(departmentId, academicYearId, escapeLike(query.trim()) + "%"));
+        } else {
+            sql = "SELECT " + COLUMNS + ", "
+                    + "MATCH (title, description) AGAINST (? IN BOOLEAN MODE) * 2 + COALESCE(("
+                    + "SELECT MAX(MATCH (m.title) AGAINST (? IN BOOLEAN MODE)) FROM modules m "
+                    + "WHERE m.course_id = courses.id), 0) AS relevance "
+                    + "FROM courses WHERE " + visible + " AND ("
+                    + "MATCH (title, description) AGAINST (? IN BOOLEAN MODE) "
+                    + "OR id IN (SELECT course_id FROM modules WHERE MATCH (title) AGAINST (? IN BOOLEAN MODE))) "
+                    + "ORDER BY relevance DESC, title, id LIMIT ? OFFSET ?";
+            params.addAll(List.of(match, match, departmentId, academicYearId, match, match));
+        }
+        params.addAll(List.of(limit, offset));
+        return runQuery(sql, params);
+    }
+
+    private static List<Course> runQuery(String sql, List<Object> params) throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+            return mapCourses(conn, stmt.executeQuery());
+        }
+    }
+
+    /**
+     * Turns typed text into a BOOLEAN MODE expression requiring every word as
+     * a prefix. Operators are dropped, so any input is safe to pass.
+     * 
+     * @return The expression, or null if no word is long enough to search.
+     */
+    static String toBooleanQuery(String query) {
+        if (query == null)
+            return null;
+        StringBuilder match = new StringBuilder();
+        for (String word : query.split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= MIN_SEARCH_WORD) {
+                match.append('+').append(word).append("* ");
+            }
+        }
+        return match.length() == 0 ? null : match.toString().trim();
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    public static String findInstructorName(int instructorId) throws SQLException {
+        String sql = "SELECT username FROM users WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, instructorId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString("username") : null;
+            }
+        }
+    }
+
+    /**
+     * Creates a course, storing the cover via `StoredFileDao.bindFile`.
+     * 
+     * Logic:
+     * 1. Builds the cover thumbnail before borrowing a connection.
+     * 2. Registers the cover, inserts the row and bumps the catalog version in
+     * one transaction, so a failed insert leaves no stored-file reference.
+     * 
+     * @param coverImage The cover image file; may be null.
+     */
+    public static void insert(String title, String description, int instructorId, File coverImage,
+            int departmentId, int academicYearId) throws SQLException {
+        byte[] thumb;
+        try {
+            thumb = Thumbnails.create(coverImage, Thumbnails.COURSE_SIZE);
+        } catch (IOException e) {
+            throw new SQLException("Could not read " + coverImage.getName(), e);
+        }
+
+        String sql = "INSERT INTO courses (title, description, instructor_id, course_image, course_image_hash, course_thumb, department_id, academic_year_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = DatabaseConnection.prepareStreaming(conn, sql)) {
+                stmt.setString(1, title);
+                stmt.setString(2, description);
+                stmt.setInt(3, instructorId);
+                stmt.setBytes(6, thumb);
+                stmt.setInt(7, departmentId);
+                stmt.setInt(8, academicYearId);
+                try (InputStream in = StoredFileDao.bindFile(conn, stmt, 4, 5, coverImage, null)) {
+                    stmt.executeUpdate();
+                }
+                CatalogCache.invalidate(conn);
+                conn.commit();
+                CatalogCache.clear();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } catch (IOException e) {
+                conn.rollback();
+                throw new SQLException("Could not read " + coverImage.getName(), e);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static List<Course> mapCourses(Connection conn, ResultSet rs) throws SQLException {
+        List<Course> list = new ArrayList<>();
+        try (rs) {
+            while (rs.next()) {
+                int id = rs.getInt("id");
+                byte[] thumb = rs.getBytes("course_thumb");
+                if (thumb == null && rs.getBoolean("has_image")) {
+                    thumb = ThumbnailDao.backfill(conn, BlobColumn.COURSE_IMAGE, id);
+                }
+                list.add(new Course(
+                        id,
+                        rs.getString("title"),
+                        rs.getString("description"),
+                        rs.getInt("instructor_id"),
+                        thumb,
+                        rs.getInt("course_image_version")));
+            }
+        }
+        return list;
+    }
+}
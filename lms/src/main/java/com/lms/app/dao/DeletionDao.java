@@ -0,0 +1,157 @@
+package com.lms.app.dao;
+
+import com.lms.app.util.DatabaseConnection;
+import com.lms.app.util.FileHandler;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * DeletionDao.
+ *
+ * Purpose:
+ * - Deletes a course, module, assignment or user together with everything
+ * that hangs off it (modules, assignments, submissions, stored file
+ * references), keeping `gradebook_summary` in step.
+ * - Each level is removed with one set-based statement, children first, in a
+ * single transaction: a fixed handful of statements no matter how many rows
+ * are involved, and nothing is left half-deleted if one fails.
+ * - Deleting children explicitly (rather than only relying on `ON DELETE
+ * CASCADE`) also cleans up databases created before the cascades existed.
+ * - Methods are synchronous; call them through `DbExecutor`.
+ */
+public class DeletionDao {
+
+    private static final String[] COURSE_STEPS = {
+            "DELETE s FROM submissions s JOIN assignments a ON s.assignment_id = a.id "
+                    + "JOIN modules m ON a.module_id = m.id WHERE m.course_id = ?",
+            "DELETE a FROM assignments a JOIN modules m ON a.module_id = m.id WHERE m.course_id = ?",
+            "DELETE FROM modules WHERE course_id = ?",
+            "DELETE FROM courses WHERE id = ?",
+    };
+
+    private static final String[] MODULE_STEPS = {
+            "DELETE s FROM submissions s JOIN assignments a ON s.assignment_id = a.id WHERE a.module_id = ?",
+            "DELETE FROM assignments WHERE module_id = ?",
+            "DELETE FROM modules WHERE id = ?",
+    };
+
+    private static final String[] ASSIGNMENT_STEPS = {
+            "DELETE FROM submissions WHERE assignment_id = ?",
+            "DELETE FROM assignments WHERE id = ?",
+    };
+
+    private static final String[] USER_STEPS = {
+            "DELETE FROM submissions WHERE student_id = ?",
+            "DELETE s FROM submissions s JOIN assignments a ON s.assignment_id = a.id "
+                    + "JOIN modules m ON a.module_id = m.id JOIN courses c ON m.course_id = c.id "
+                    + "WHERE c.instructor_id = ?",
+            "DELETE a FROM assignments a JOIN modules m ON a.module_id = m.id "
+                    + "JOIN courses c ON m.course_id = c.id WHERE c.instructor_id = ?",
+            "DELETE m FROM modules m JOIN courses c ON m.course_id = c.id WHERE c.instructor_id = ?",
+            "DELETE FROM courses WHERE instructor_id = ?",
+            "DELETE FROM users WHERE id = ?",
+    };
+
+    /**
+     * Deletes a course, its modules, assignments and submissions.
+     *
+     * @param listener Receives (statements done, total statements); may be null.
+     */
+    public static void deleteCourse(int courseId, FileHandler.ProgressListener listener) throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                StoredFileDao.releaseCourse(conn, courseId);
+                runSteps(conn, COURSE_STEPS, courseId, listener);
+                CatalogCache.invalidate(conn);
+                conn.commit();
+                CatalogCache.clear();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Deletes a module, its assignments and submissions, and recomputes the
+     * course's `gradebook_summary` rows, which no longer count them.
+     */
+    public static void deleteModule(int moduleId, int courseId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                StoredFileDao.releaseModule(conn, moduleId);
+                runSteps(conn, MODULE_STEPS, moduleId, null);
+                GradebookDao.refreshCourse(conn, courseId);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Deletes an assignment and its submissions, and recomputes the course's
+     * `gradebook_summary` rows.
+     */
+    public static void deleteAssignment(int assignmentId, int courseId) throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                StoredFileDao.releaseAssignment(conn, assignmentId);
+                runSteps(conn, ASSIGNMENT_STEPS, assignmentId, null);
+                GradebookDao.refreshCourse(conn, courseId);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Deletes a user, their submissions, and every course they teach with its
+     * content.
+     *
+     * @param listener Receives (statements done, total statements); may be null.
+     */
+    public static void deleteUser(int userId, FileHandler.ProgressListener listener) throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                StoredFileDao.releaseUser(conn, userId);
+                runSteps(conn, USER_STEPS, userId, listener);
+                CatalogCache.invalidate(conn); // their courses go with them
+                conn.commit();
+                CatalogCache.clear();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void runSteps(Connection conn, String[] steps, int id, FileHandler.ProgressListener listener)
+            throws SQLException {
+        for (int i = 0; i < steps.length; i++) {
+            try (PreparedStatement stmt = conn.prepareStatement(steps[i])) {
+                stmt.setInt(1, id);
+                stmt.executeUpdate();
+            }
+            if (listener != null)
+                listener.onProgress(i + 1, steps.length);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.lms.app.dao;
+
+import com.lms.app.model.GradeItem;
+import com.lms.app.model.GradeSummary;
+import com.lms.app.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GradeDao.
+ * 
+ * Purpose:
+ * - Reads a student's grades for the "My Grades" screen: one summary row per
+ * course (from `gradebook_summary`) and, on demand, the submissions behind
+ * one course.
+ * - Methods are synchronous; call them through `DbExecutor`.
+ */
+public class GradeDao {
+
+    /**
+     * Per-course and overall totals of a student's submissions.
+     * 
+     * Logic:
+     * - Reads the student's `gradebook_summary` rows (a primary-key range), not
+     * the submissions themselves.
+     * - There is no enrollment table, so a student's courses are the courses
+     * they have submitted to.
+     * - `WITH ROLLUP` adds the overall row (course_id NULL, reported as
+     * `courseId` 0) after the per-course rows.
+     * 
+     * @return Per-course summaries followed by the overall one. Empty if the
+     *         student has no submissions.
+     */
+    public static List<GradeSummary> findSummaries(int studentId) throws SQLException {
+        List<GradeSummary> list = new ArrayList<>();
+        String sql = "SELECT g.course_id, MAX(c.title) AS course_title, "
+                + "SUM(g.earned) AS earned, SUM(g.possible) AS possible, "
+                + "SUM(g.graded_count) AS graded, SUM(g.pending_count) AS pending "
+                + "FROM gradebook_summary g "
+                + "JOIN courses c ON g.course_id = c.id "
+                + "WHERE g.student_id = ? "
+                + "GROUP BY g.course_id WITH ROLLUP";
+
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, studentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(readSummary(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * A student's overall standing in the courses one instructor teaches.
+     * 
+     * @return The totals, all zero if the student has no submissions there.
+     */
+    public static GradeSummary findStanding(int studentId, int instructorId) throws SQLException {
+        String sql = "SELECT 0 AS course_id, NULL AS course_title, "
+                + "COALESCE(SUM(g.earned), 0) AS earned, COALESCE(SUM(g.possible), 0) AS possible, "
+                + "COALESCE(SUM(g.graded_count), 0) AS graded, COALESCE(SUM(g.pending_count), 0) AS pending "
+                + "FROM gradebook_summary g "
+                + "JOIN courses c ON g.course_id = c.id "
+                + "WHERE g.student_id = ? AND c.instructor_id = ?";
+
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, studentId);
+            stmt.setInt(2, instructorId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return readSummary(rs);
+            }
+        }
+    }
+
+    private static GradeSummary readSummary(ResultSet rs) throws SQLException {
+        return new GradeSummary(
+                rs.getInt("course_id"),
+                rs.getString("course_title"),
+                rs.getInt("earned"),
+                rs.getInt("possible"),
+                rs.getInt("graded"),
+                rs.getInt("pending"));
+    }
+
+    /**
+     * A student's submissions in one course. Ungraded submissions have a null
+     * score.
+     */
+    public static List<GradeItem> findByStudentAndCourse(int studentId, int courseId) throws SQLException {
+        List<GradeItem> list = new ArrayList<>();
+        String sql = "SELECT c.title as course_title, a.description as assign_name, a.max_score, s.score, s.feedback_text "
+                +
+                "FROM submissions s " +
+                "JOIN assignments a ON s.assignment_id = a.id " +
+                "JOIN modules m ON a.module_id = m.id " +
+                "JOIN courses c ON m.course_id = c.id " +
+                "WHERE s.student_id = ? AND m.course_id = ?";
+
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, studentId);
+            stmt.setInt(2, courseId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int scoreVal = rs.getInt("score");
+                    Integer score = rs.wasNull() ? null : scoreVal;
+                    list.add(new GradeItem(
+                            rs.getString("course_title"),
+                            rs.getString("assign_name"),
+                            score,
+                            rs.getInt("max_score"),
+                            rs.getString("feedback_text")));
+                }
+            }
+        }
+        return list;
+    }
+}
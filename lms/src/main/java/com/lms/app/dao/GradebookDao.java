@@ -0,0 +1,125 @@
+package com.lms.app.dao;
+
+import com.lms.app.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * GradebookDao.
+ *
+ * Purpose:
+ * - Maintains `gradebook_summary`: one row per (student, course) with the
+ * totals of the student's submissions in that course, so a standing is a
+ * primary-key lookup instead of a four-way join over `submissions`.
+ * - Every write to `submissions` calls one of the `refresh` methods on the
+ * same connection, inside the same transaction.
+ * - A refresh recomputes the affected rows from `submissions` instead of
+ * applying a delta, so regrades, resubmissions and deletions cannot make the
+ * totals drift.
+ */
+public class GradebookDao {
+
+    private static final String TOTALS = "COALESCE(SUM(s.score), 0) AS earned, "
+            + "COALESCE(SUM(IF(s.score IS NULL, 0, a.max_score)), 0) AS possible, "
+            + "COUNT(s.score) AS graded_count, "
+            + "COALESCE(SUM(s.score IS NULL), 0) AS pending_count "
+            + "FROM submissions s "
+            + "JOIN assignments a ON s.assignment_id = a.id "
+            + "JOIN modules m ON a.module_id = m.id ";
+
+    private static final String UPSERT = "INSERT INTO gradebook_summary "
+            + "(student_id, course_id, earned, possible, graded_count, pending_count) "
+            + "SELECT * FROM (%s) AS t "
+            + "ON DUPLICATE KEY UPDATE earned = t.earned, possible = t.possible, "
+            + "graded_count = t.graded_count, pending_count = t.pending_count";
+
+    /**
+     * Recomputes one student's row for one course. The SELECT aggregates
+     * without GROUP BY, so it yields a row even when nothing is left; such a
+     * row is deleted again.
+     */
+    public static void refresh(Connection conn, int studentId, int courseId) throws SQLException {
+        String select = "SELECT ? AS student_id, ? AS course_id, " + TOTALS
+                + "WHERE s.student_id = ? AND m.course_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(String.format(UPSERT, select))) {
+            stmt.setInt(1, studentId);
+            stmt.setInt(2, courseId);
+            stmt.setInt(3, studentId);
+            stmt.setInt(4, courseId);
+            stmt.executeUpdate();
+        }
+        String cleanup = "DELETE FROM gradebook_summary WHERE student_id = ? AND course_id = ? "
+                + "AND graded_count = 0 AND pending_count = 0";
+        try (PreparedStatement stmt = conn.prepareStatement(cleanup)) {
+            stmt.setInt(1, studentId);
+            stmt.setInt(2, courseId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Recomputes the row a submission counts towards.
+     */
+    public static void refreshForSubmission(Connection conn, int submissionId) throws SQLException {
+        String sql = "SELECT s.student_id, m.course_id FROM submissions s "
+                + "JOIN assignments a ON s.assignment_id = a.id "
+                + "JOIN modules m ON a.module_id = m.id WHERE s.id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, submissionId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    refresh(conn, rs.getInt("student_id"), rs.getInt("course_id"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes every student's row for one course. Call after deleting
+     * assignments or modules, whose submissions go with them.
+     */
+    public static void refreshCourse(Connection conn, int courseId) throws SQLException {
+        String select = "SELECT s.student_id, m.course_id, " + TOTALS
+                + "WHERE m.course_id = ? AND s.student_id IS NOT NULL GROUP BY s.student_id, m.course_id";
+        try (PreparedStatement stmt = conn.prepareStatement(String.format(UPSERT, select))) {
+            stmt.setInt(1, courseId);
+            stmt.executeUpdate();
+        }
+        String cleanup = "DELETE g FROM gradebook_summary g WHERE g.course_id = ? AND NOT EXISTS ("
+                + "SELECT 1 FROM submissions s JOIN assignments a ON s.assignment_id = a.id "
+                + "JOIN modules m ON a.module_id = m.id "
+                + "WHERE s.student_id = g.student_id AND m.course_id = g.course_id)";
+        try (PreparedStatement stmt = conn.prepareStatement(cleanup)) {
+            stmt.setInt(1, courseId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Rebuilds the whole table from `submissions` in one transaction.
+     *
+     * @return The number of rows written.
+     */
+    public static int rebuild() throws SQLException {
+        String select = "SELECT s.student_id, m.course_id, " + TOTALS
+                + "WHERE s.student_id IS NOT NULL GROUP BY s.student_id, m.course_id";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM gradebook_summary");
+                int rows = stmt.executeUpdate(String.format(UPSERT, select));
+                conn.commit();
+                return rows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
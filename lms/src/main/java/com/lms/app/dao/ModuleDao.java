@@ -0,0 +1,92 @@
+package com.lms.app.dao;
+
+import com.lms.app.model.Module;
+import com.lms.app.util.DatabaseConnection;
+import com.lms.app.util.FileHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ModuleDao.
+ * 
+ * Purpose:
+ * - Reads of the `modules` table for the course viewer and module editor.
+ * - Listings are metadata-only; file contents are downloaded on demand through
+ * `FileCache`.
+ * - Uploads are streamed from disk rather than read into memory.
+ * - Methods are synchronous; call them through `DbExecutor`.
+ */
+public class ModuleDao {
+
+    /**
+     * Lists a course's modules without their file contents. Files can be hundreds
+     * of MB, so only their size is read here (from `stored_files` for files in the
+     * external store, from the BLOB length otherwise).
+     */
+    public static List<Module> findByCourse(int courseId) throws SQLException {
+        List<Module> list = new ArrayList<>();
+        String sql = "SELECT m.id, m.course_id, m.title, m.file_type, m.upload_date, "
+                + "COALESCE(sf.size, OCTET_LENGTH(m.module_data)) AS size "
+                + "FROM modules m LEFT JOIN stored_files sf ON sf.hash = m.module_hash "
+                + "WHERE m.course_id = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, courseId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new Module(
+                            rs.getInt("id"),
+                            rs.getInt("course_id"),
+                            rs.getString("title"),
+                            rs.getString("file_type"),
+                            rs.getDate("upload_date") != null ? rs.getDate("upload_date").toLocalDate() : null,
+                            rs.getLong("size")));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Inserts a module, storing `file` via `StoredFileDao.bindFile` (external
+     * store, or streamed into `module_data`). The file reference and the row
+     * are committed together, so a failed insert leaves no reference behind.
+     * 
+     * @param listener Upload progress callback; may be null.
+     */
+    public static void insert(int courseId, String title, File file, String fileType,
+            FileHandler.ProgressListener listener) throws SQLException {
+        String sql = "INSERT INTO modules (course_id, title, module_data, module_hash, file_type, upload_date) VALUES (?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = DatabaseConnection.prepareStreaming(conn, sql)) {
+                stmt.setInt(1, courseId);
+                stmt.setString(2, title);
+                stmt.setString(5, fileType);
+                stmt.setDate(6, Date.valueOf(LocalDate.now())); // Set current date
+                try (InputStream in = StoredFileDao.bindFile(conn, stmt, 3, 4, file, listener)) {
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } catch (IOException e) {
+                conn.rollback();
+                throw new SQLException("Could not read " + file.getName(), e);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
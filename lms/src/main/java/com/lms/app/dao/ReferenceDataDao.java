@@ -0,0 +1,161 @@
+package com.lms.app.dao;
+
+import com.lms.app.model.AcademicYearItem;
+import com.lms.app.model.DepartmentItem;
+import com.lms.app.util.AppConfig;
+import com.lms.app.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReferenceDataDao.
+ * 
+ * Purpose:
+ * - Read-through cache of the `departments` and `academic_years` tables, which
+ * nearly every screen reads and only Admin Settings changes.
+ * - Each change bumps `reference_data_version.version`. Other clients compare
+ * their cached version with it (one primary-key lookup, at most every
+ * `cache.reference.checkSeconds`) and reload both tables only when it moved.
+ * - Lists are returned as unmodifiable copies ordered by id.
+ * - Also holds Admin Settings' changes to both tables, each followed by
+ * `invalidate()`. Like the reads, call them through `DbExecutor`.
+ */
+public class ReferenceDataDao {
+
+    private static final long CHECK_INTERVAL_MILLIS = AppConfig.getInt("cache.reference.checkSeconds", 30) * 1000L;
+
+    private static List<DepartmentItem> departments;
+    private static List<AcademicYearItem> academicYears;
+    private static long loadedVersion = -1;
+    private static long lastCheckedAt;
+
+    public static synchronized List<DepartmentItem> getDepartments() throws SQLException {
+        refreshIfStale();
+        return departments;
+    }
+
+    public static synchronized List<AcademicYearItem> getAcademicYears() throws SQLException {
+        refreshIfStale();
+        return academicYears;
+    }
+
+    public static List<AcademicYearItem> getActiveAcademicYears() throws SQLException {
+        return getAcademicYears().stream().filter(AcademicYearItem::isActive).toList();
+    }
+
+    /**
+     * @return The department's name, or null if there is no such department.
+     */
+    public static String getDepartmentName(int id) throws SQLException {
+        return getDepartments().stream().filter(d -> d.getId() == id).map(DepartmentItem::getName).findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * @return The academic year's label, or null if there is no such year.
+     */
+    public static String getAcademicYearName(int id) throws SQLException {
+        return getAcademicYears().stream().filter(y -> y.getId() == id).map(AcademicYearItem::getYearName)
+                .findFirst().orElse(null);
+    }
+
+    public static void addDepartment(String name, String description) throws SQLException {
+        update("INSERT INTO departments (name, description) VALUES (?, ?)", name, description);
+    }
+
+    public static void deleteDepartment(int id) throws SQLException {
+        update("DELETE FROM departments WHERE id = ?", id);
+    }
+
+    public static void addAcademicYear(String yearName, boolean active) throws SQLException {
+        update("INSERT INTO academic_years (year_name, is_active) VALUES (?, ?)", yearName, active);
+    }
+
+    public static void setAcademicYearActive(int id, boolean active) throws SQLException {
+        update("UPDATE academic_years SET is_active = ? WHERE id = ?", active, id);
+    }
+
+    public static void deleteAcademicYear(int id) throws SQLException {
+        update("DELETE FROM academic_years WHERE id = ?", id);
+    }
+
+    /**
+     * Records that departments or academic years changed. Call after every
+     * INSERT/UPDATE/DELETE on either table; other clients pick the change up on
+     * their next version check, this one immediately.
+     */
+    public static synchronized void invalidate() throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE reference_data_version SET version = version + 1 WHERE id = 1");
+        } finally {
+            departments = null;
+            academicYears = null;
+            loadedVersion = -1;
+        }
+    }
+
+    private static void update(String sql, Object... params) throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            stmt.executeUpdate();
+        }
+        invalidate();
+    }
+
+    private static void refreshIfStale() throws SQLException {
+        long now = System.currentTimeMillis();
+        if (departments != null && now - lastCheckedAt < CHECK_INTERVAL_MILLIS)
+            return;
+
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            long version = readVersion(conn);
+            if (departments == null || version != loadedVersion) {
+                departments = List.copyOf(loadDepartments(conn));
+                academicYears = List.copyOf(loadAcademicYears(conn));
+                loadedVersion = version;
+            }
+            lastCheckedAt = now;
+        }
+    }
+
+    private static long readVersion(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT version FROM reference_data_version WHERE id = 1");
+                ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong("version") : 0;
+        }
+    }
+
+    private static List<DepartmentItem> loadDepartments(Connection conn) throws SQLException {
+        List<DepartmentItem> list = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT id, name, description FROM departments ORDER BY id");
+                ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                list.add(new DepartmentItem(rs.getInt("id"), rs.getString("name"), rs.getString("description")));
+            }
+        }
+        return list;
+    }
+
+    private static List<AcademicYearItem> loadAcademicYears(Connection conn) throws SQLException {
+        List<AcademicYearItem> list = new ArrayList<>();
+        try (PreparedStatement stmt = conn
+                .prepareStatement("SELECT id, year_name, is_active FROM academic_years ORDER BY id");
+                ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                list.add(new AcademicYearItem(rs.getInt("id"), rs.getString("year_name"),
+                        rs.getBoolean("is_active")));
+            }
+        }
+        return list;
+    }
+}
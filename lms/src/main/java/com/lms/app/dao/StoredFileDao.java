@@ -0,0 +1,303 @@
+package com.lms.app.dao;
+
+import com.lms.app.model.StorageStats;
+import com.lms.app.util.BlobColumn;
+import com.lms.app.util.DatabaseConnection;
+import com.lms.app.util.FileHandler;
+import com.lms.app.util.FileStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * StoredFileDao.
+ *
+ * Purpose:
+ * - Writes uploaded files either to the external `FileStore` (recording the
+ * hash in `stored_files`) or, when no store is configured, into the row's
+ * LONGBLOB column.
+ * - Used by every DAO/controller that saves a file, so the storage choice is
+ * made in one place.
+ * - Keeps `stored_files.ref_count` in step with the rows that point at each
+ * file, so identical uploads share one stored copy and unused copies can be
+ * removed (`collectGarbage`).
+ */
+public class StoredFileDao {
+
+    /**
+     * Unreferenced files younger than this are kept, so an upload that has
+     * written its file but not yet its row is never collected.
+     */
+    private static final int GC_GRACE_MINUTES = 60;
+
+    /**
+     * Binds `file` to an INSERT/UPDATE statement.
+     *
+     * Logic:
+     * - With a `FileStore`: hashes the local file and adds a reference in
+     * `stored_files` first. That pins the row: `collectGarbage` only removes
+     * rows it can lock with no references, and waits for this one if it is
+     * removing the same file right now. Only then checks the store and copies
+     * the file if it is missing. Sets the hash parameter and NULLs the BLOB
+     * parameter.
+     * - Without: streams the file into the BLOB parameter and NULLs the hash.
+     * - With `file == null`: NULLs both.
+     *
+     * @param conn      Connection the statement belongs to.
+     * @param stmt      Statement from `DatabaseConnection.prepareStreaming`.
+     * @param dataIndex Parameter index of the LONGBLOB column.
+     * @param hashIndex Parameter index of the matching `*_hash` column.
+     * @param listener  Upload progress callback; may be null.
+     * @return The stream bound to `stmt`; close it after executing. May be null.
+     */
+    public static InputStream bindFile(Connection conn, PreparedStatement stmt, int dataIndex, int hashIndex,
+            File file, FileHandler.ProgressListener listener) throws SQLException, IOException {
+        if (file == null) {
+            stmt.setNull(dataIndex, Types.LONGVARBINARY);
+            stmt.setNull(hashIndex, Types.CHAR);
+            return null;
+        }
+
+        FileStore store = FileHandler.getFileStore();
+        if (store != null) {
+            String hash = FileHandler.sha256(file);
+            register(conn, hash, file.length());
+            try {
+                if (store.exists(hash)) {
+                    if (listener != null)
+                        listener.onProgress(file.length(), file.length());
+                } else if (!hash.equals(store.put(FileHandler.openForUpload(file, listener)))) {
+                    throw new IOException("File changed while uploading: " + file.getName());
+                }
+            } catch (IOException e) {
+                unregister(conn, hash);
+                throw e;
+            }
+            stmt.setNull(dataIndex, Types.LONGVARBINARY);
+            stmt.setString(hashIndex, hash);
+            return null;
+        }
+
+        InputStream in = FileHandler.openForUpload(file, listener);
+        stmt.setBinaryStream(dataIndex, in, file.length());
+        stmt.setNull(hashIndex, Types.CHAR);
+        return in;
+    }
+
+    /**
+     * Adds one reference to a stored file, recording it if it is new. Touches
+     * `updated_at`, which restarts the garbage collection grace period.
+     */
+    public static void register(Connection conn, String hash, long size) throws SQLException {
+        String sql = "INSERT INTO stored_files (hash, size, ref_count) VALUES (?, ?, 1) "
+                + "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, updated_at = CURRENT_TIMESTAMP";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, hash);
+            stmt.setLong(2, size);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Removes one reference added by `register` whose row was never written.
+     */
+    public static void unregister(Connection conn, String hash) throws SQLException {
+        String sql = "UPDATE stored_files SET ref_count = ref_count - 1 WHERE hash = ? AND ref_count > 0";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, hash);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Drops the references held by the rows of `column` matching `where`, and
+     * the BLOB hashes `FileCache` recorded for them in `blob_digests`.
+     * Call it in the same transaction, just before those rows are deleted or
+     * their file is replaced.
+     *
+     * @param where SQL condition on `column.getTable()`; every `?` in it is
+     *              bound to `id`.
+     */
+    public static void release(Connection conn, BlobColumn column, String where, int id) throws SQLException {
+        String sql = "UPDATE stored_files sf JOIN ("
+                + "SELECT " + column.getHashColumn() + " AS hash, COUNT(*) AS refs FROM " + column.getTable()
+                + " WHERE " + column.getHashColumn() + " IS NOT NULL AND (" + where + ")"
+                + " GROUP BY " + column.getHashColumn()
+                + ") r ON sf.hash = r.hash SET sf.ref_count = GREATEST(sf.ref_count - r.refs, 0)";
+        int params = (int) where.chars().filter(c -> c == '?').count();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 1; i <= params; i++) {
+                stmt.setInt(i, id);
+            }
+            stmt.executeUpdate();
+        }
+
+        String digestSql = "DELETE FROM blob_digests WHERE table_name = ? AND row_id IN (SELECT id FROM "
+                + column.getTable() + " WHERE " + where + ")";
+        try (PreparedStatement stmt = conn.prepareStatement(digestSql)) {
+            stmt.setString(1, column.getTable());
+            for (int i = 1; i <= params; i++) {
+                stmt.setInt(i + 1, id);
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Releases an assignment's file and its submissions' files.
+     */
+    public static void releaseAssignment(Connection conn, int assignmentId) throws SQLException {
+        release(conn, BlobColumn.SUBMISSION, "assignment_id = ?", assignmentId);
+        release(conn, BlobColumn.ASSIGNMENT, "id = ?", assignmentId);
+    }
+
+    /**
+     * Releases a module's file and everything under it.
+     */
+    public static void releaseModule(Connection conn, int moduleId) throws SQLException {
+        release(conn, BlobColumn.SUBMISSION,
+                "assignment_id IN (SELECT id FROM assignments WHERE module_id = ?)", moduleId);
+        release(conn, BlobColumn.ASSIGNMENT, "module_id = ?", moduleId);
+        release(conn, BlobColumn.MODULE, "id = ?", moduleId);
+    }
+
+    /**
+     * Releases a course's image and everything under it.
+     */
+    public static void releaseCourse(Connection conn, int courseId) throws SQLException {
+        release(conn, BlobColumn.SUBMISSION, "assignment_id IN (SELECT a.id FROM assignments a "
+                + "JOIN modules m ON a.module_id = m.id WHERE m.course_id = ?)", courseId);
+        release(conn, BlobColumn.ASSIGNMENT, "module_id IN (SELECT id FROM modules WHERE course_id = ?)", courseId);
+        release(conn, BlobColumn.MODULE, "course_id = ?", courseId);
+        release(conn, BlobColumn.COURSE_IMAGE, "id = ?", courseId);
+    }
+
+    /**
+     * Releases everything deleted along with a user: their profile image, their
+     * submissions, and the courses they teach.
+     */
+    public static void releaseUser(Connection conn, int userId) throws SQLException {
+        release(conn, BlobColumn.SUBMISSION, "student_id = ? OR assignment_id IN (SELECT a.id FROM assignments a "
+                + "JOIN modules m ON a.module_id = m.id JOIN courses c ON m.course_id = c.id "
+                + "WHERE c.instructor_id = ?)", userId);
+        release(conn, BlobColumn.ASSIGNMENT, "module_id IN (SELECT m.id FROM modules m "
+                + "JOIN courses c ON m.course_id = c.id WHERE c.instructor_id = ?)", userId);
+        release(conn, BlobColumn.MODULE, "course_id IN (SELECT id FROM courses WHERE instructor_id = ?)", userId);
+        release(conn, BlobColumn.COURSE_IMAGE, "instructor_id = ?", userId);
+        release(conn, BlobColumn.PROFILE_IMAGE, "id = ?", userId);
+    }
+
+    /**
+     * Recomputes every `ref_count` from the `*_hash` columns in one statement.
+     * Repairs counts left behind by failed uploads or by rows deleted outside
+     * the application.
+     */
+    public static void recount(Connection conn) throws SQLException {
+        StringJoiner refs = new StringJoiner(" UNION ALL ");
+        for (BlobColumn column : BlobColumn.values()) {
+            refs.add("SELECT " + column.getHashColumn() + " AS hash FROM " + column.getTable()
+                    + " WHERE " + column.getHashColumn() + " IS NOT NULL");
+        }
+        String sql = "UPDATE stored_files sf LEFT JOIN (SELECT hash, COUNT(*) AS refs FROM (" + refs
+                + ") h GROUP BY hash) r ON sf.hash = r.hash SET sf.ref_count = COALESCE(r.refs, 0)";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    /**
+     * Summarises the store: distinct files, references to them, and the bytes
+     * saved by sharing identical files.
+     */
+    public static StorageStats getStats() throws SQLException {
+        String sql = "SELECT COALESCE(SUM(ref_count > 0), 0) AS files, "
+                + "COALESCE(SUM(ref_count), 0) AS refs, "
+                + "COALESCE(SUM(IF(ref_count > 0, size, 0)), 0) AS stored_bytes, "
+                + "COALESCE(SUM(size * ref_count), 0) AS logical_bytes, "
+                + "COALESCE(SUM(ref_count = 0), 0) AS unreferenced "
+                + "FROM stored_files";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return new StorageStats(rs.getLong("files"), rs.getLong("refs"), rs.getLong("stored_bytes"),
+                    rs.getLong("logical_bytes"), rs.getLong("unreferenced"));
+        }
+    }
+
+    /**
+     * Deletes stored files nothing points to any more.
+     *
+     * Logic:
+     * 1. Recounts references (`recount`), so a drifted count can never cause a
+     * file in use to be deleted.
+     * 2. For each `stored_files` row with no references that has not changed
+     * for `GC_GRACE_MINUTES`: locks the row (re-checking both conditions),
+     * deletes the file, then the row, in one transaction. An upload of the
+     * same content registers its reference before looking at the store, so it
+     * either keeps the row alive or waits for the lock and then finds the file
+     * missing and stores it again.
+     *
+     * @return The number of files removed.
+     */
+    public static int collectGarbage(FileStore store) throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            recount(conn);
+
+            List<String> candidates = new ArrayList<>();
+            String findSql = "SELECT hash FROM stored_files WHERE ref_count = 0 "
+                    + "AND updated_at < NOW() - INTERVAL " + GC_GRACE_MINUTES + " MINUTE";
+            try (Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery(findSql)) {
+                while (rs.next()) {
+                    candidates.add(rs.getString("hash"));
+                }
+            }
+
+            int removed = 0;
+            String lockSql = "SELECT hash FROM stored_files WHERE hash = ? AND ref_count = 0 "
+                    + "AND updated_at < NOW() - INTERVAL " + GC_GRACE_MINUTES + " MINUTE FOR UPDATE";
+            String deleteSql = "DELETE FROM stored_files WHERE hash = ?";
+            conn.setAutoCommit(false);
+            try (PreparedStatement lock = conn.prepareStatement(lockSql);
+                    PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+                for (String hash : candidates) {
+                    lock.setString(1, hash);
+                    try (ResultSet rs = lock.executeQuery()) {
+                        if (!rs.next()) {
+                            conn.commit(); // Referenced again meanwhile
+                            continue;
+                        }
+                    }
+                    try {
+                        store.delete(hash);
+                    } catch (IOException e) {
+                        conn.rollback(); // Keep the row; the next run tries again
+                        e.printStackTrace();
+                        continue;
+                    }
+                    delete.setString(1, hash);
+                    delete.executeUpdate();
+                    conn.commit();
+                    removed++;
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            return removed;
+        }
+    }
+}
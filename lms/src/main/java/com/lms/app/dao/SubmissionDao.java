@@ -0,0 +1,199 @@
+package com.lms.app.dao;
+
+import com.lms.app.model.SubmissionDTO;
+import com.lms.app.model.SubmissionFilter;
+import com.lms.app.util.DatabaseConnection;
+import com.lms.app.util.FileHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SubmissionDao.
+ * 
+ * Purpose:
+ * - Reads of the `submissions` table for the grading screen.
+ * - Inserts of student solutions, streamed from disk, and grading; both keep
+ * `gradebook_summary` current (`GradebookDao`).
+ * - Methods are synchronous; call them through `DbExecutor`.
+ */
+public class SubmissionDao {
+
+    /**
+     * Loads one page of submissions for the grading tables.
+     * 
+     * Logic:
+     * 1. Restricts to the instructor's courses, then filters by graded state,
+     * course, assignment and student in SQL. The join runs courses
+     * (instructor_id) -> modules (course_id) -> assignments (module_id, due_date)
+     * -> submissions (assignment_id, score), each step on an index.
+     * 2. Orders by (due_date IS NULL, due_date, submission id), so undated
+     * assignments come last in both directions, and continues after `after`
+     * on the same key (keyset pagination), so later pages cost the same as the
+     * first. `due_date` is compared as a DATE, never as a string.
+     * 3. Selects no file columns; the file is fetched only when opened.
+     * 
+     * @param after The last row of the previous page, or null for the first.
+     * @param limit Maximum number of rows to return.
+     */
+    public static List<SubmissionDTO> findPage(SubmissionFilter filter, SubmissionDTO after, int limit)
+            throws SQLException {
+        String direction = filter.isNewestDueFirst() ? "DESC" : "ASC";
+        String beyond = filter.isNewestDueFirst() ? "<" : ">";
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT s.id, u.username, c.title AS course_title, a.description, a.due_date, s.file_type, s.score, s.feedback_text "
+                        + "FROM submissions s "
+                        + "JOIN assignments a ON s.assignment_id = a.id "
+                        + "JOIN modules m ON a.module_id = m.id "
+                        + "JOIN courses c ON m.course_id = c.id "
+                        + "JOIN users u ON s.student_id = u.id ");
+        sql.append("WHERE c.instructor_id = ? ");
+        sql.append(filter.isGraded() ? "AND s.score IS NOT NULL " : "AND s.score IS NULL ");
+
+        List<Object> params = new ArrayList<>();
+        params.add(filter.getInstructorId());
+        if (filter.getStudentId() != null) {
+            sql.append("AND s.student_id = ? ");
+            params.add(filter.getStudentId());
+        }
+        if (filter.getCourseId() != null) {
+            sql.append("AND m.course_id = ? ");
+            params.add(filter.getCourseId());
+        }
+        if (filter.getAssignmentId() != null) {
+            sql.append("AND s.assignment_id = ? ");
+            params.add(filter.getAssignmentId());
+        }
+        if (after != null && after.getDueDate() != null) {
+            // Later dates, the same date with a later id, then every undated row
+            sql.append("AND (a.due_date IS NULL OR a.due_date ").append(beyond).append(" ? ")
+                    .append("OR (a.due_date = ? AND s.id ").append(beyond).append(" ?)) ");
+            Date dueDate = Date.valueOf(after.getDueDate());
+            params.add(dueDate);
+            params.add(dueDate);
+            params.add(after.getId());
+        } else if (after != null) {
+            sql.append("AND a.due_date IS NULL AND s.id ").append(beyond).append(" ? ");
+            params.add(after.getId());
+        }
+        sql.append("ORDER BY (a.due_date IS NULL), a.due_date ").append(direction)
+                .append(", s.id ").append(direction).append(" LIMIT ?");
+        params.add(limit);
+
+        List<SubmissionDTO> list = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int scoreVal = rs.getInt("score");
+                    if (rs.wasNull())
+                        scoreVal = -1;
+
+                    list.add(new SubmissionDTO(
+                            rs.getInt("id"),
+                            rs.getString("username"),
+                            rs.getString("course_title"),
+                            rs.getString("description"),
+                            rs.getString("due_date"),
+                            rs.getString("file_type"),
+                            scoreVal,
+                            rs.getString("feedback_text")));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Inserts a student's solution, storing `file` via `StoredFileDao.bindFile`,
+     * and updates the student's `gradebook_summary` row in the same
+     * transaction.
+     * 
+     * @param listener Upload progress callback; may be null.
+     */
+    public static void insert(int assignmentId, int studentId, File file, FileHandler.ProgressListener listener)
+            throws SQLException {
+        String sql = "INSERT INTO submissions (assignment_id, student_id, submission_data, submission_hash, file_type) VALUES (?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = DatabaseConnection.prepareStreaming(conn, sql)) {
+                stmt.setInt(1, assignmentId);
+                stmt.setInt(2, studentId);
+                stmt.setString(5, FileHandler.getFileType(file.getName(), null));
+                try (InputStream in = StoredFileDao.bindFile(conn, stmt, 3, 4, file, listener)) {
+                    stmt.executeUpdate();
+                }
+                GradebookDao.refresh(conn, studentId, findCourseId(conn, assignmentId));
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } catch (IOException e) {
+                conn.rollback();
+                throw new SQLException("Could not read " + file.getName(), e);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Saves a score and feedback, and updates the student's
+     * `gradebook_summary` row in the same transaction.
+     * 
+     * @param instructorId Only submissions to this instructor's own courses
+     *                     are graded.
+     * @return False if no such submission exists in the instructor's courses.
+     */
+    public static boolean grade(int submissionId, int instructorId, int score, String feedback) throws SQLException {
+        String sql = "UPDATE submissions s "
+                + "JOIN assignments a ON s.assignment_id = a.id "
+                + "JOIN modules m ON a.module_id = m.id "
+                + "JOIN courses c ON m.course_id = c.id "
+                + "SET s.score = ?, s.feedback_text = ? WHERE s.id = ? AND c.instructor_id = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, score);
+                stmt.setString(2, feedback);
+                stmt.setInt(3, submissionId);
+                stmt.setInt(4, instructorId);
+                boolean updated = stmt.executeUpdate() > 0;
+                if (updated)
+                    GradebookDao.refreshForSubmission(conn, submissionId);
+                conn.commit();
+                return updated;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static int findCourseId(Connection conn, int assignmentId) throws SQLException {
+        String sql = "SELECT m.course_id FROM assignments a JOIN modules m ON a.module_id = m.id WHERE a.id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, assignmentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next())
+                    throw new SQLException("Assignment " + assignmentId + " no longer exists.");
+                return rs.getInt("course_id");
+            }
+        }
+    }
+}
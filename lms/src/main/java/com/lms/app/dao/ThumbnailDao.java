@@ -0,0 +1,80 @@
+package com.lms.app.dao;
+
+import com.lms.app.util.BlobColumn;
+import com.lms.app.util.FileHandler;
+import com.lms.app.util.Thumbnails;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * ThumbnailDao.
+ *
+ * Purpose:
+ * - Creates the missing thumbnail of an image uploaded before thumbnails
+ * existed, the first time it is displayed, and saves it so it is only done
+ * once per image.
+ * - New uploads write their thumbnail together with the image (see
+ * `Thumbnails.create(File, int)`).
+ */
+public class ThumbnailDao {
+
+    /**
+     * Builds and stores the thumbnail of one course cover or profile picture.
+     *
+     * @param column `BlobColumn.COURSE_IMAGE` or `BlobColumn.PROFILE_IMAGE`.
+     * @return The thumbnail, or null if the row has no readable image.
+     */
+    public static byte[] backfill(Connection conn, BlobColumn column, int id) throws SQLException {
+        String thumbColumn;
+        int size;
+        switch (column) {
+            case COURSE_IMAGE:
+                thumbColumn = "course_thumb";
+                size = Thumbnails.COURSE_SIZE;
+                break;
+            case PROFILE_IMAGE:
+                thumbColumn = "profile_thumb";
+                size = Thumbnails.PROFILE_SIZE;
+                break;
+            default:
+                throw new IllegalArgumentException("No thumbnail for " + column);
+        }
+
+        String selectSql = "SELECT " + column.getDataColumn() + ", " + column.getHashColumn() + " FROM "
+                + column.getTable() + " WHERE id = ?";
+        byte[] original;
+        try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next())
+                    return null;
+                original = FileHandler.readImageBytes(rs.getBytes(1), rs.getString(2));
+            }
+        }
+
+        byte[] thumb;
+        try {
+            thumb = Thumbnails.create(original, size);
+        } catch (IOException e) {
+            System.err.println("Could not create thumbnail for " + column.getTable() + " id " + id + ": "
+                    + e.getMessage());
+            return null;
+        }
+        if (thumb == null)
+            return null;
+
+        // Only fills the gap: an image saved meanwhile brought its own thumbnail
+        String updateSql = "UPDATE " + column.getTable() + " SET " + thumbColumn + " = ? WHERE id = ? AND "
+                + thumbColumn + " IS NULL";
+        try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
+            stmt.setBytes(1, thumb);
+            stmt.setInt(2, id);
+            stmt.executeUpdate();
+        }
+        return thumb;
+    }
+}
@@ -0,0 +1,129 @@
+package com.lms.app.dao;
+
+import com.lms.app.model.User;
+import com.lms.app.model.UserFilter;
+import com.lms.app.model.UserProfile;
+import com.lms.app.util.BlobColumn;
+import com.lms.app.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UserDao.
+ * 
+ * Purpose:
+ * - Reads of the `users` table for the admin screens and the profile page.
+ * - Methods are synchronous; call them through `DbExecutor`.
+ */
+public class UserDao {
+
+    /**
+     * Loads one page of users for the user management table.
+     * 
+     * Logic:
+     * 1. Selects only the listed columns; passwords and images stay in the
+     * database (the profile page loads the picture when a user is opened).
+     * 2. Filters by username prefix, role and department in SQL. A prefix
+     * (`LIKE 'abc%'`) can use the unique index on `username`.
+     * 3. Orders by username and continues after `after` (keyset pagination).
+     * 
+     * @param after The last row of the previous page, or null for the first.
+     * @param limit Maximum number of rows to return.
+     */
+    public static List<User> findPage(UserFilter filter, User after, int limit) throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, username, role, department_id, academic_year_id FROM users WHERE 1 = 1 ");
+        List<Object> params = new ArrayList<>();
+        if (filter.getUsernamePrefix() != null && !filter.getUsernamePrefix().isBlank()) {
+            sql.append("AND username LIKE ? ");
+            params.add(escapeLike(filter.getUsernamePrefix().trim()) + "%");
+        }
+        if (filter.getRole() != null) {
+            sql.append("AND role = ? ");
+            params.add(filter.getRole());
+        }
+        if (filter.getDepartmentId() != null) {
+            sql.append("AND department_id = ? ");
+            params.add(filter.getDepartmentId());
+        }
+        if (after != null) {
+            sql.append("AND username > ? ");
+            params.add(after.getUsername());
+        }
+        sql.append("ORDER BY username LIMIT ?");
+        params.add(limit);
+
+        List<User> list = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                stmt.setObject(i + 1, params.get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new User(
+                            rs.getInt("id"),
+                            rs.getString("username"),
+                            rs.getString("role"),
+                            rs.getInt("department_id"),
+                            rs.getInt("academic_year_id")));
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Loads one user for the profile page.
+     * 
+     * Logic:
+     * 1. Reads the listed columns and the thumbnail; the full-size picture is
+     * only tested for presence.
+     * 2. If the picture predates thumbnails, builds the thumbnail now (after
+     * the first result set is closed) via `ThumbnailDao.backfill`.
+     * 
+     * @return The profile, or null if the user does not exist.
+     */
+    public static UserProfile findProfile(int userId) throws SQLException {
+        String sql = "SELECT username, role, department_id, academic_year_id, profile_thumb, "
+                + "profile_image_version, (profile_image IS NOT NULL OR profile_image_hash IS NOT NULL) AS has_image "
+                + "FROM users WHERE id = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            User user;
+            byte[] thumb;
+            int imageVersion;
+            boolean hasImage;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, userId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next())
+                        return null;
+                    user = new User(
+                            userId,
+                            rs.getString("username"),
+                            rs.getString("role"),
+                            rs.getInt("department_id"),
+                            rs.getInt("academic_year_id"));
+                    thumb = rs.getBytes("profile_thumb");
+                    imageVersion = rs.getInt("profile_image_version");
+                    hasImage = rs.getBoolean("has_image");
+                }
+            }
+
+            if (thumb == null && hasImage) {
+                thumb = ThumbnailDao.backfill(conn, BlobColumn.PROFILE_IMAGE, userId);
+            }
+            return new UserProfile(user, thumb, imageVersion);
+        }
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
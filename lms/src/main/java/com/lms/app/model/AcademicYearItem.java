@@ -7,15 +7,21 @@ package com.lms.app.model;
  * - A lightweight wrapper for Academic Year data.
  * - Used in UI dropdowns to allow selection of academic sessions (e.g.,
  * "2024-2025").
- * - Stores ID and YearName.
+ * - Stores ID, YearName and whether the year is active.
  */
 public class AcademicYearItem {
     private final int id;
     private final String yearName;
+    private final boolean active;
 
     public AcademicYearItem(int id, String yearName) {
+        this(id, yearName, true);
+    }
+
+    public AcademicYearItem(int id, String yearName, boolean active) {
         this.id = id;
         this.yearName = yearName;
+        this.active = active;
     }
 
     public int getId() {
@@ -26,6 +32,10 @@ public class AcademicYearItem {
         return yearName;
     }
 
+    public boolean isActive() {
+        return active;
+    }
+
     @Override
     public String toString() {
         return yearName;
@@ -9,6 +9,8 @@ import java.sql.Date;
  * - Represents a task assigned to students within a specific Module.
  * - Maps to the `assignments` table.
  * - Includes details like due date and maximum score possible.
+ * - When loaded for a student (`AssignmentDao.findByCourse`), also carries
+ * that student's submission count and best score.
  */
 public class Assignment {
     private int id;
@@ -16,13 +18,31 @@ public class Assignment {
     private String description;
     private int maxScore;
     private Date dueDate;
+    private String fileType;
+    private boolean hasFile;
+    private int submissionCount;
+    private Integer score;
 
     public Assignment(int id, int moduleId, String description, int maxScore, Date dueDate) {
+        this(id, moduleId, description, maxScore, dueDate, null, false);
+    }
+
+    public Assignment(int id, int moduleId, String description, int maxScore, Date dueDate, String fileType,
+            boolean hasFile) {
+        this(id, moduleId, description, maxScore, dueDate, fileType, hasFile, 0, null);
+    }
+
+    public Assignment(int id, int moduleId, String description, int maxScore, Date dueDate, String fileType,
+            boolean hasFile, int submissionCount, Integer score) {
         this.id = id;
         this.moduleId = moduleId;
         this.description = description;
         this.maxScore = maxScore;
         this.dueDate = dueDate;
+        this.fileType = fileType;
+        this.hasFile = hasFile;
+        this.submissionCount = submissionCount;
+        this.score = score;
     }
 
     public int getId() {
@@ -44,4 +64,23 @@ public class Assignment {
     public Date getDueDate() {
         return dueDate;
     }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public boolean hasFile() {
+        return hasFile;
+    }
+
+    public int getSubmissionCount() {
+        return submissionCount;
+    }
+
+    /**
+     * @return The student's best graded score, or null if nothing is graded yet.
+     */
+    public Integer getScore() {
+        return score;
+    }
 }
@@ -7,6 +7,7 @@ package com.lms.app.model;
  * - Represents a course offered by an instructor.
  * - Maps to the `courses` table.
  * - Contains title, description, and the ID of the instructor who teaches it.
+ * - Carries the cover thumbnail (not the full upload) for display.
  */
 public class Course {
     private int id;
@@ -14,14 +15,17 @@ public class Course {
     private String description;
     private int instructorId;
 
-    private byte[] courseImage;
+    private byte[] courseThumb;
+    private int imageVersion;
 
-    public Course(int id, String title, String description, int instructorId, byte[] courseImage) {
+    public Course(int id, String title, String description, int instructorId, byte[] courseThumb,
+            int imageVersion) {
         this.id = id;
         this.title = title;
         this.description = description;
         this.instructorId = instructorId;
-        this.courseImage = courseImage;
+        this.courseThumb = courseThumb;
+        this.imageVersion = imageVersion;
     }
 
     public Course(int instructorId) {
@@ -45,7 +49,11 @@ public class Course {
         return instructorId;
     }
 
-    public byte[] getCourseImage() {
-        return courseImage;
+    public byte[] getCourseThumb() {
+        return courseThumb;
+    }
+
+    public int getImageVersion() {
+        return imageVersion;
     }
 }
@@ -12,10 +12,16 @@ package com.lms.app.model;
 public class DepartmentItem {
     private final int id;
     private final String name;
+    private final String description;
 
     public DepartmentItem(int id, String name) {
+        this(id, name, null);
+    }
+
+    public DepartmentItem(int id, String name, String description) {
         this.id = id;
         this.name = name;
+        this.description = description;
     }
 
     public int getId() {
@@ -26,6 +32,10 @@ public class DepartmentItem {
         return name;
     }
 
+    public String getDescription() {
+        return description;
+    }
+
     @Override
     public String toString() {
         return name;
@@ -0,0 +1,49 @@
+package com.lms.app.model;
+
+/**
+ * GradeItem Model.
+ * 
+ * Purpose:
+ * - One row of the student's "My Grades" table (`StudentGradesController`).
+ * - Keeps the raw score (null while the submission is still pending) so totals
+ * can be computed without re-parsing display strings.
+ */
+public class GradeItem {
+    private final String course;
+    private final String assignment;
+    private final Integer score;
+    private final int maxScore;
+    private final String feedback;
+
+    public GradeItem(String course, String assignment, Integer score, int maxScore, String feedback) {
+        this.course = course;
+        this.assignment = assignment;
+        this.score = score;
+        this.maxScore = maxScore;
+        this.feedback = feedback;
+    }
+
+    public String getCourse() {
+        return course;
+    }
+
+    public String getAssignment() {
+        return assignment;
+    }
+
+    public Integer getScore() {
+        return score;
+    }
+
+    public int getMaxScore() {
+        return maxScore;
+    }
+
+    public String getFeedback() {
+        return feedback;
+    }
+
+    public boolean isGraded() {
+        return score != null;
+    }
+}
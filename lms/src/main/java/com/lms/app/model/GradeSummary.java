@@ -0,0 +1,63 @@
+package com.lms.app.model;
+
+/**
+ * GradeSummary Model.
+ * 
+ * Purpose:
+ * - A student's standing in one course, or across all courses when
+ * `isOverall()` (the ROLLUP row of `GradeDao.findSummaries`).
+ * - Totals count graded submissions only; pending ones are counted separately.
+ */
+public class GradeSummary {
+    private final int courseId;
+    private final String course;
+    private final int earned;
+    private final int possible;
+    private final int gradedCount;
+    private final int pendingCount;
+
+    public GradeSummary(int courseId, String course, int earned, int possible, int gradedCount, int pendingCount) {
+        this.courseId = courseId;
+        this.course = course;
+        this.earned = earned;
+        this.possible = possible;
+        this.gradedCount = gradedCount;
+        this.pendingCount = pendingCount;
+    }
+
+    public int getCourseId() {
+        return courseId;
+    }
+
+    public String getCourse() {
+        return course;
+    }
+
+    public int getEarned() {
+        return earned;
+    }
+
+    public int getPossible() {
+        return possible;
+    }
+
+    public int getGradedCount() {
+        return gradedCount;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * @return Earned points as a percentage of possible points, or null if
+     *         nothing has been graded yet.
+     */
+    public Double getPercentage() {
+        return possible > 0 ? earned * 100.0 / possible : null;
+    }
+
+    public boolean isOverall() {
+        return courseId == 0;
+    }
+}
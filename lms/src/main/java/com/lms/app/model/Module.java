@@ -6,8 +6,8 @@ package com.lms.app.model;
  * Purpose:
  * - Represents a specific chapter or unit of learning content within a Course.
  * - Maps to the `modules` table.
- * - Stores the binary data (`moduleData`) of the uploaded file (PDF/PPT) in
- * memory before saving/after loading.
+ * - Listings load only metadata (`size` instead of `moduleData`); the file
+ * itself is fetched on demand with `FileCache`.
  */
 public class Module {
     private int id;
@@ -16,6 +16,7 @@ public class Module {
     private byte[] moduleData;
     private String fileType;
     private java.time.LocalDate uploadDate;
+    private long size;
 
     public Module(int id, int courseId, String title, byte[] moduleData, String fileType,
             java.time.LocalDate uploadDate) {
@@ -25,6 +26,16 @@ public class Module {
         this.moduleData = moduleData;
         this.fileType = fileType;
         this.uploadDate = uploadDate;
+        this.size = moduleData != null ? moduleData.length : 0;
+    }
+
+    /**
+     * Metadata-only constructor used by listings; `getModuleData()` returns null.
+     */
+    public Module(int id, int courseId, String title, String fileType, java.time.LocalDate uploadDate,
+            long size) {
+        this(id, courseId, title, null, fileType, uploadDate);
+        this.size = size;
     }
 
     public int getId() {
@@ -50,4 +61,8 @@ public class Module {
     public java.time.LocalDate getUploadDate() {
         return uploadDate;
     }
+
+    public long getSize() {
+        return size;
+    }
 }
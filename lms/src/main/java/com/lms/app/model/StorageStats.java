@@ -0,0 +1,50 @@
+package com.lms.app.model;
+
+/**
+ * StorageStats Model.
+ *
+ * Purpose:
+ * - Summary of the shared file store shown under Admin Settings > Storage.
+ * - `logicalBytes` is what the same rows would occupy without deduplication
+ * (each reference counted separately); `storedBytes` is what is actually on
+ * disk.
+ */
+public class StorageStats {
+    private final long files;
+    private final long references;
+    private final long storedBytes;
+    private final long logicalBytes;
+    private final long unreferencedFiles;
+
+    public StorageStats(long files, long references, long storedBytes, long logicalBytes, long unreferencedFiles) {
+        this.files = files;
+        this.references = references;
+        this.storedBytes = storedBytes;
+        this.logicalBytes = logicalBytes;
+        this.unreferencedFiles = unreferencedFiles;
+    }
+
+    public long getFiles() {
+        return files;
+    }
+
+    public long getReferences() {
+        return references;
+    }
+
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    public long getLogicalBytes() {
+        return logicalBytes;
+    }
+
+    public long getUnreferencedFiles() {
+        return unreferencedFiles;
+    }
+
+    public long getBytesSaved() {
+        return logicalBytes - storedBytes;
+    }
+}
@@ -0,0 +1,66 @@
+package com.lms.app.model;
+
+/**
+ * SubmissionDTO Model.
+ * 
+ * Purpose:
+ * - A flattened view of a submission joined with its assignment and student.
+ * - Used by the Grading screen tables (`GradingController`).
+ * - A score of -1 means the submission has not been graded yet.
+ * - Carries no file contents; the file is fetched with `FileCache` when the
+ * instructor opens it.
+ */
+public class SubmissionDTO {
+    private int id;
+    private String username;
+    private String courseTitle;
+    private String assignmentTitle;
+    private String dueDate;
+    private String fileType;
+    private int score;
+    private String feedback;
+
+    public SubmissionDTO(int id, String username, String courseTitle, String assignmentTitle, String dueDate,
+            String fileType, int score, String feedback) {
+        this.id = id;
+        this.username = username;
+        this.courseTitle = courseTitle;
+        this.assignmentTitle = assignmentTitle;
+        this.dueDate = dueDate;
+        this.fileType = fileType;
+        this.score = score;
+        this.feedback = feedback;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getCourseTitle() {
+        return courseTitle;
+    }
+
+    public String getAssignmentTitle() {
+        return assignmentTitle;
+    }
+
+    public String getDueDate() {
+        return dueDate;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public String getFeedback() {
+        return feedback;
+    }
+}
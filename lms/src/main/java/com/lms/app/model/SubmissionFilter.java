@@ -0,0 +1,52 @@
+package com.lms.app.model;
+
+/**
+ * SubmissionFilter Model.
+ *
+ * Purpose:
+ * - The grading screen's current filter and sort order, passed to
+ * `SubmissionDao.findPage` so filtering happens in SQL.
+ * - Always scoped to one instructor's courses; a null id means "any".
+ */
+public class SubmissionFilter {
+    private final int instructorId;
+    private final boolean graded;
+    private final Integer studentId;
+    private final Integer courseId;
+    private final Integer assignmentId;
+    private final boolean newestDueFirst;
+
+    public SubmissionFilter(int instructorId, boolean graded, Integer studentId, Integer courseId,
+            Integer assignmentId, boolean newestDueFirst) {
+        this.instructorId = instructorId;
+        this.graded = graded;
+        this.studentId = studentId;
+        this.courseId = courseId;
+        this.assignmentId = assignmentId;
+        this.newestDueFirst = newestDueFirst;
+    }
+
+    public int getInstructorId() {
+        return instructorId;
+    }
+
+    public boolean isGraded() {
+        return graded;
+    }
+
+    public Integer getStudentId() {
+        return studentId;
+    }
+
+    public Integer getCourseId() {
+        return courseId;
+    }
+
+    public Integer getAssignmentId() {
+        return assignmentId;
+    }
+
+    public boolean isNewestDueFirst() {
+        return newestDueFirst;
+    }
+}
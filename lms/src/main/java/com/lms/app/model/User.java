@@ -7,20 +7,19 @@ package com.lms.app.model;
  * - Represents a registered user in the system.
  * - Maps directly to the `users` table in the database.
  * - Holds information like ID, Username, Role, and Department ID.
+ * - Listing projection: no password or profile picture.
  */
 public class User {
     private int id;
     private String username;
     private String role;
-    private byte[] profileImage;
     private int departmentId;
     private int academicYearId;
 
-    public User(int id, String username, String role, byte[] profileImage, int departmentId, int academicYearId) {
+    public User(int id, String username, String role, int departmentId, int academicYearId) {
         this.id = id;
         this.username = username;
         this.role = role;
-        this.profileImage = profileImage;
         this.departmentId = departmentId;
         this.academicYearId = academicYearId;
     }
@@ -37,10 +36,6 @@ public class User {
         return role;
     }
 
-    public byte[] getProfileImage() {
-        return profileImage;
-    }
-
     public int getDepartmentId() {
         return departmentId;
     }
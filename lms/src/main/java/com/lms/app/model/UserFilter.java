@@ -0,0 +1,33 @@
+package com.lms.app.model;
+
+/**
+ * UserFilter Model.
+ *
+ * Purpose:
+ * - The user management screen's search, passed to `UserDao.findPage` so
+ * filtering happens in SQL.
+ * - A null (or blank) field means "any".
+ */
+public class UserFilter {
+    private final String usernamePrefix;
+    private final String role;
+    private final Integer departmentId;
+
+    public UserFilter(String usernamePrefix, String role, Integer departmentId) {
+        this.usernamePrefix = usernamePrefix;
+        this.role = role;
+        this.departmentId = departmentId;
+    }
+
+    public String getUsernamePrefix() {
+        return usernamePrefix;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Integer getDepartmentId() {
+        return departmentId;
+    }
+}
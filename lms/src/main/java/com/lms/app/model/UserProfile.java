@@ -0,0 +1,34 @@
+package com.lms.app.model;
+
+/**
+ * UserProfile Model.
+ *
+ * Purpose:
+ * - What the profile page shows for one user: the `User` columns plus the
+ * profile picture thumbnail and its version (for `ImageCache`).
+ * - Never holds the password hash or the full-size picture.
+ */
+public class UserProfile {
+    private final User user;
+    private final byte[] thumb;
+    private final int imageVersion;
+
+    public UserProfile(User user, byte[] thumb, int imageVersion) {
+        this.user = user;
+        this.thumb = thumb;
+        this.imageVersion = imageVersion;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    /** Encoded thumbnail, or null if the user has no picture. */
+    public byte[] getThumb() {
+        return thumb;
+    }
+
+    public int getImageVersion() {
+        return imageVersion;
+    }
+}
@@ -0,0 +1,52 @@
+package com.lms.app.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * AppConfig Utility.
+ * 
+ * Purpose:
+ * - Loads `src/main/resources/config.properties` once and shares it with every
+ * component (database pool, file storage, ...).
+ * - Provides typed getters with defaults so a missing key never stops the
+ * application from starting.
+ */
+public class AppConfig {
+
+    private static Properties properties;
+
+    public static synchronized Properties getProperties() {
+        if (properties == null) {
+            properties = new Properties();
+            try (InputStream input = AppConfig.class.getClassLoader().getResourceAsStream("config.properties")) {
+                if (input == null) {
+                    System.out.println("Sorry, unable to find config.properties");
+                } else {
+                    properties.load(input);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return properties;
+    }
+
+    public static String get(String key, String defaultValue) {
+        String value = getProperties().getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        if (value == null)
+            return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Warning: Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.lms.app.util;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Avatars Utility.
+ *
+ * Purpose:
+ * - Placeholder avatars for users without a profile picture: their initials
+ * on a coloured circle, the colour derived from the username so it stays the
+ * same everywhere.
+ * - Each (initials, colour, size) is drawn once per process and shared by the
+ * sidebar and the user table.
+ * - Drawn with Java2D into an ARGB buffer instead of a Canvas snapshot, so it
+ * can run on a background thread and never holds up the JavaFX Application
+ * Thread.
+ */
+public class Avatars {
+
+    private static final Color[] PALETTE = {
+            new Color(0x007bff), new Color(0x28a745), new Color(0xdc3545), new Color(0xfd7e14),
+            new Color(0x6f42c1), new Color(0x20c997), new Color(0xe83e8c), new Color(0x17a2b8),
+    };
+
+    private static final Map<String, Image> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the placeholder for `username`, drawing it on first use.
+     *
+     * @param size Width and height in pixels.
+     */
+    public static Image placeholder(String username, int size) {
+        String initials = initials(username);
+        int colour = Math.floorMod(username == null ? 0 : username.hashCode(), PALETTE.length);
+        return cache.computeIfAbsent(initials + "-" + colour + "-" + size,
+                key -> render(initials, PALETTE[colour], size));
+    }
+
+    /**
+     * First letter of the first two name parts ("jane_doe" gives "JD"), or the
+     * first letter alone; "?" if the name has no letters or digits.
+     */
+    private static String initials(String username) {
+        if (username == null)
+            return "?";
+        StringBuilder sb = new StringBuilder(2);
+        for (String part : username.split("[^\\p{L}\\p{N}]+")) {
+            if (!part.isEmpty()) {
+                sb.appendCodePoint(part.codePointAt(0));
+                if (sb.length() >= 2)
+                    break;
+            }
+        }
+        return sb.length() == 0 ? "?" : sb.toString().toUpperCase(Locale.ROOT);
+    }
+
+    private static Image render(String initials, Color background, int size) {
+        BufferedImage buffer = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = buffer.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(background);
+            g.fillOval(0, 0, size, size);
+
+            g.setColor(Color.WHITE);
+            g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, Math.round(size * (initials.length() > 1 ? 0.38f : 0.45f))));
+            FontMetrics fm = g.getFontMetrics();
+            int x = (size - fm.stringWidth(initials)) / 2;
+            int y = (size - fm.getHeight()) / 2 + fm.getAscent();
+            g.drawString(initials, x, y);
+        } finally {
+            g.dispose();
+        }
+
+        int[] pixels = buffer.getRGB(0, 0, size, size, null, 0, size);
+        WritableImage image = new WritableImage(size, size);
+        image.getPixelWriter().setPixels(0, 0, size, size, PixelFormat.getIntArgbInstance(), pixels, 0, size);
+        return image;
+    }
+}
@@ -0,0 +1,40 @@
+package com.lms.app.util;
+
+/**
+ * BlobColumn.
+ * 
+ * Purpose:
+ * - Lists every column that holds an uploaded file, together with the column
+ * that holds its content hash once the file lives in the `FileStore`.
+ * - Table and column names used in dynamic SQL come from here only, never from
+ * user input.
+ */
+public enum BlobColumn {
+    MODULE("modules", "module_data", "module_hash"),
+    ASSIGNMENT("assignments", "assignment_data", "assignment_hash"),
+    SUBMISSION("submissions", "submission_data", "submission_hash"),
+    COURSE_IMAGE("courses", "course_image", "course_image_hash"),
+    PROFILE_IMAGE("users", "profile_image", "profile_image_hash");
+
+    private final String table;
+    private final String dataColumn;
+    private final String hashColumn;
+
+    BlobColumn(String table, String dataColumn, String hashColumn) {
+        this.table = table;
+        this.dataColumn = dataColumn;
+        this.hashColumn = hashColumn;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public String getDataColumn() {
+        return dataColumn;
+    }
+
+    public String getHashColumn() {
+        return hashColumn;
+    }
+}
@@ -0,0 +1,74 @@
+package com.lms.app.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * BlobInputStream.
+ * 
+ * Purpose:
+ * - Reads a BLOB column as a stream with a single query, so MySQL reads the
+ * LONGBLOB once. (Fetching it in `SUBSTRING` chunks made the server read the
+ * whole value again for every chunk.)
+ * - The statement streams its result (`setFetchSize(Integer.MIN_VALUE)`);
+ * Connector/J still holds the one row in memory, which uploads cap at
+ * `FileHandler.MAX_UPLOAD_BYTES`. The file store avoids that entirely.
+ * - No other statement can run on the Connection until this stream is
+ * closed. Does not close the Connection it was given.
+ */
+public class BlobInputStream extends InputStream {
+
+    private final PreparedStatement stmt;
+    private final ResultSet rs;
+    private final InputStream data;
+
+    private BlobInputStream(PreparedStatement stmt, ResultSet rs, InputStream data) {
+        this.stmt = stmt;
+        this.rs = rs;
+        this.data = data;
+    }
+
+    /**
+     * @return The stream, or null if the row does not exist or has no file.
+     */
+    public static BlobInputStream open(Connection conn, BlobColumn column, int id) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement("SELECT " + column.getDataColumn() + " FROM "
+                + column.getTable() + " WHERE id = ?", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            stmt.setInt(1, id);
+            ResultSet rs = stmt.executeQuery();
+            InputStream data = rs.next() ? rs.getBinaryStream(1) : null;
+            if (data != null)
+                return new BlobInputStream(stmt, rs, data);
+        } catch (SQLException e) {
+            stmt.close();
+            throw e;
+        }
+        stmt.close(); // Also closes the result set
+        return null;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return data.read();
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) throws IOException {
+        return data.read(buf, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (stmt; rs) {
+            data.close();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+}
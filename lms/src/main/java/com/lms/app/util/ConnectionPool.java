@@ -0,0 +1,366 @@
+package com.lms.app.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConnectionPool Utility.
+ *
+ * Purpose:
+ * - Keeps a bounded set of physical MySQL connections open and lends them out
+ * to callers.
+ * - Hands out proxy Connections whose `close()` returns the physical link to
+ * the pool instead of tearing down the TCP/TLS session.
+ * - Validates idle connections on borrow, evicts connections idle for too long
+ * (down to the configured minimum), and reports connections held longer than
+ * the leak threshold.
+ * - Configured from the `db.pool.*` keys in `config.properties`.
+ */
+public class ConnectionPool {
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private final int minIdle;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long connectionTimeoutMillis;
+    private final long leakDetectionMillis;
+    private final int validationTimeoutSeconds;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown;
+
+    public ConnectionPool(String url, String user, String password, Properties props) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = Math.max(1, intProperty(props, "db.pool.maxSize", 10));
+        this.minIdle = Math.min(maxSize, Math.max(0, intProperty(props, "db.pool.minIdle", 2)));
+        this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(intProperty(props, "db.pool.idleTimeoutSeconds", 300));
+        this.connectionTimeoutMillis = TimeUnit.SECONDS
+                .toMillis(intProperty(props, "db.pool.connectionTimeoutSeconds", 10));
+        this.leakDetectionMillis = TimeUnit.SECONDS.toMillis(intProperty(props, "db.pool.leakDetectionSeconds", 60));
+        this.validationTimeoutSeconds = Math.max(1, intProperty(props, "db.pool.validationTimeoutSeconds", 2));
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "lms-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, 30_000));
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private static int intProperty(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank())
+            return defaultValue;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Warning: Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Opens connections until `minIdle` physical connections are idle in the pool.
+     * Failures are logged and left for the next borrow to retry.
+     */
+    public void fillToMinimum() {
+        while (!shutdown) {
+            synchronized (idle) {
+                if (idle.size() + borrowed.size() >= minIdle)
+                    return;
+            }
+            try {
+                PooledConnection pc = new PooledConnection(openPhysical());
+                synchronized (idle) {
+                    idle.addLast(pc);
+                }
+            } catch (SQLException e) {
+                System.err.println("Warning: Could not pre-open pooled connection: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Borrows a connection from the pool.
+     *
+     * Logic:
+     * 1. Waits up to `connectionTimeoutSeconds` for a free slot (bounded by
+     * `maxSize`).
+     * 2. Reuses the most recently returned idle connection if it still passes
+     * `isValid()`; otherwise discards it and tries the next.
+     * 3. Opens a new physical connection when no idle one is available.
+     *
+     * @return A Connection whose `close()` hands it back to the pool.
+     * @throws SQLException If the pool is exhausted or MySQL is unreachable.
+     */
+    public Connection borrow() throws SQLException {
+        if (shutdown)
+            throw new SQLException("Connection pool has been shut down.");
+        try {
+            if (!permits.tryAcquire(connectionTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out waiting for a database connection (pool size " + maxSize + ").");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+
+        try {
+            PooledConnection pc;
+            while ((pc = pollIdle()) != null) {
+                if (isUsable(pc.physical))
+                    break;
+                closeQuietly(pc.physical);
+            }
+            if (pc == null) {
+                pc = new PooledConnection(openPhysical());
+            }
+            pc.borrowedAt = System.currentTimeMillis();
+            pc.borrowSite = leakDetectionMillis > 0 ? new Throwable("Connection borrowed here") : null;
+            borrowed.add(pc);
+            return pc.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection pollIdle() {
+        synchronized (idle) {
+            return idle.pollFirst();
+        }
+    }
+
+    private boolean isUsable(Connection physical) {
+        try {
+            return !physical.isClosed() && physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection conn = DriverManager.getConnection(url, user, password);
+        // Set session variable immediately after connection
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET SESSION max_allowed_packet=67108864"); // 64MB
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not set max_allowed_packet: " + e.getMessage());
+        }
+        return conn;
+    }
+
+    private void release(PooledConnection pc) {
+        if (!borrowed.remove(pc))
+            return;
+        try {
+            boolean reusable = !shutdown && reset(pc);
+            if (reusable) {
+                pc.lastReturnedAt = System.currentTimeMillis();
+                synchronized (idle) {
+                    idle.addFirst(pc);
+                }
+            } else {
+                closeQuietly(pc.physical);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Restores the session state a caller may have changed (open statements,
+     * manual transactions) so the next borrower gets a clean connection.
+     */
+    private boolean reset(PooledConnection pc) {
+        try {
+            pc.closeTrackedStatements();
+            if (pc.physical.isClosed())
+                return false;
+            if (!pc.physical.getAutoCommit()) {
+                pc.physical.rollback();
+                pc.physical.setAutoCommit(true);
+            }
+            if (pc.physical.isReadOnly()) {
+                pc.physical.setReadOnly(false);
+            }
+            pc.physical.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        List<PooledConnection> evicted = new ArrayList<>();
+        synchronized (idle) {
+            int total = idle.size() + borrowed.size();
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && total > minIdle) {
+                PooledConnection pc = it.next();
+                if (now - pc.lastReturnedAt > idleTimeoutMillis) {
+                    it.remove();
+                    evicted.add(pc);
+                    total--;
+                }
+            }
+        }
+        evicted.forEach(pc -> closeQuietly(pc.physical));
+
+        if (leakDetectionMillis > 0) {
+            for (PooledConnection pc : borrowed) {
+                if (!pc.leakReported && now - pc.borrowedAt > leakDetectionMillis) {
+                    pc.leakReported = true;
+                    System.err.println("Warning: Possible connection leak, held for " + (now - pc.borrowedAt) + " ms");
+                    if (pc.borrowSite != null)
+                        pc.borrowSite.printStackTrace();
+                }
+            }
+        }
+
+        fillToMinimum();
+    }
+
+    /**
+     * Closes all idle connections and stops the housekeeper. Borrowed connections
+     * are closed when their holders return them.
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        synchronized (idle) {
+            idle.forEach(pc -> closeQuietly(pc.physical));
+            idle.clear();
+        }
+    }
+
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    public int getBorrowedCount() {
+        return borrowed.size();
+    }
+
+    private static void closeQuietly(AutoCloseable resource) {
+        try {
+            resource.close();
+        } catch (Exception e) {
+            // Already broken, nothing left to release
+        }
+    }
+
+    /**
+     * A physical connection plus the bookkeeping the pool needs for it.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final List<Statement> statements = new ArrayList<>();
+        private volatile long borrowedAt;
+        private volatile long lastReturnedAt = System.currentTimeMillis();
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection newHandle() {
+            leakReported = false;
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new Handle(this));
+        }
+
+        synchronized void track(Statement stmt) {
+            statements.add(stmt);
+        }
+
+        synchronized void closeTrackedStatements() {
+            statements.forEach(ConnectionPool::closeQuietly);
+            statements.clear();
+        }
+    }
+
+    /**
+     * The Connection handed to callers. Each borrow gets a fresh handle so a
+     * stale reference cannot touch a connection that has since been re-lent.
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pc;
+        private boolean closed;
+
+        Handle(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pc.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pc.physical + "]";
+                default:
+                    break;
+            }
+            if (closed)
+                throw new SQLException("Connection has been returned to the pool.");
+
+            Object result;
+            try {
+                result = method.invoke(pc.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement) {
+                pc.track((Statement) result);
+            }
+            return result;
+        }
+    }
+}
@@ -1,95 +1,110 @@
 package com.lms.app.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 /**
  * DatabaseConnection Utility.
  * 
  * Purpose:
- * - Manages the JDBC connection to the MySQL database.
- * - Implements the Singleton Pattern to ensure only one connection instance
- * exists.
- * - Loads database credentials (URL, User, Password) dynamically from
- * `src/main/resources/config.properties`.
+ * - Manages the JDBC connections to the MySQL database.
+ * - Implements the Singleton Pattern so the whole application shares one
+ * `ConnectionPool`.
+ * - Loads database credentials (URL, User, Password) and pool settings
+ * dynamically from `src/main/resources/config.properties`.
  * - Provides the `getConnection()` method used by all Controllers to execute
  * SQL queries.
  */
 public class DatabaseConnection {
 
     private static DatabaseConnection instance;
-    private Connection connection;
-    private static String url;
-    private static String user;
-    private static String password;
+    private final ConnectionPool pool;
+    private volatile boolean migrated;
 
     private DatabaseConnection() {
-        try {
-            loadProperties();
-
-            // Connect first
-            connection = DriverManager.getConnection(url, user, password);
-
-            // Set session variable immediately after connection
-            try (java.sql.Statement stmt = connection.createStatement()) {
-                stmt.execute("SET SESSION max_allowed_packet=67108864"); // 64MB
-            } catch (SQLException e) {
-                System.err.println("Warning: Could not set max_allowed_packet: " + e.getMessage());
-            }
-
-        } catch (SQLException | java.io.IOException e) {
-            e.printStackTrace();
-        }
-    }
-
-    private void loadProperties() throws java.io.IOException {
-        java.util.Properties props = new java.util.Properties();
-        try (java.io.InputStream input = getClass().getClassLoader().getResourceAsStream("config.properties")) {
-            if (input == null) {
-                System.out.println("Sorry, unable to find config.properties");
-                return;
-            }
-            props.load(input);
-            url = props.getProperty("db.url");
-            user = props.getProperty("db.user");
-            password = props.getProperty("db.password");
-        }
+        java.util.Properties props = AppConfig.getProperties();
+        pool = new ConnectionPool(props.getProperty("db.url"), props.getProperty("db.user"),
+                props.getProperty("db.password"), props);
     }
 
     public static synchronized DatabaseConnection getInstance() {
         if (instance == null) {
             instance = new DatabaseConnection();
-            if (instance.getConnection() != null) {
-                SchemaPatcher.patchAssignmentsTable(instance.getConnection());
-            }
-        } else {
             try {
-                if (instance.getConnection() == null || instance.getConnection().isClosed()) {
-                    instance = new DatabaseConnection();
-                }
+                instance.migrate();
             } catch (SQLException e) {
-                e.printStackTrace();
+                e.printStackTrace(); // getConnection() retries and reports it to the caller
             }
+            instance.pool.fillToMinimum();
         }
         return instance;
     }
 
     /**
-     * Retrieves the active database connection.
+     * Brings the schema up to date once per run (see `SchemaMigrator`). Until
+     * that has succeeded, every `getConnection()` tries again, so nothing runs
+     * against an outdated schema and a client that lost the race for the
+     * migration lock recovers on the next attempt.
+     */
+    private synchronized void migrate() throws SQLException {
+        if (migrated)
+            return;
+        try (Connection conn = pool.borrow()) {
+            SchemaMigrator.migrate(conn);
+        } catch (SQLException e) {
+            throw new SQLException("The database schema could not be updated: " + e.getMessage(), e);
+        }
+        migrated = true;
+    }
+
+    /**
+     * Borrows a database connection from the pool.
      * 
      * Logic:
-     * 1. Checks if the `connection` object is null or has been closed.
-     * 2. If valid, returns the existing connection (Singleton behavior).
-     * 3. If invalid:
-     * - Loads the database URL, User, and Password logic from `config.properties`.
-     * - Calls `DriverManager.getConnection()` to establish a new link to MySQL.
-     * - Updates the static `connection` variable.
+     * 1. Fails if the schema migration has not succeeded yet (and cannot be
+     * completed now).
+     * 2. Waits for a free slot if `db.pool.maxSize` connections are already in use.
+     * 3. Reuses an idle connection after checking it is still alive, or opens a
+     * new one with `DriverManager.getConnection()`.
+     * 4. The caller closes the connection (normally via try-with-resources), which
+     * returns it to the pool rather than disconnecting from MySQL.
+     * 
+     * @return A pooled Connection object.
+     * @throws SQLException If the database is unreachable, credentials are wrong,
+     *                      the schema cannot be migrated, or the pool stays
+     *                      exhausted past its timeout.
+     */
+    public Connection getConnection() throws SQLException {
+        if (!migrated)
+            migrate();
+        return pool.borrow();
+    }
+
+    /**
+     * Prepares a statement that streams `setBinaryStream` parameters to MySQL.
      * 
-     * @return The active Connection object.
-     * @throws SQLException If the database is unreachable or credentials are wrong.
+     * Connector/J's default client-side statements copy the whole stream into the
+     * query packet before sending it. Server-side statements send stream
+     * parameters in small chunks instead, so large uploads never sit in memory.
+     * 
+     * @param conn A connection from `getConnection()`.
+     * @param sql  The INSERT/UPDATE with the BLOB parameter.
      */
-    public Connection getConnection() {
-        return connection;
+    public static PreparedStatement prepareStreaming(Connection conn, String sql) throws SQLException {
+        if (conn.isWrapperFor(com.mysql.cj.jdbc.JdbcConnection.class)) {
+            return conn.unwrap(com.mysql.cj.jdbc.JdbcConnection.class).serverPrepareStatement(sql);
+        }
+        return conn.prepareStatement(sql);
+    }
+
+    /**
+     * Closes every pooled connection. Called once when the application exits.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.pool.shutdown();
+            instance = null;
+        }
     }
 }
@@ -0,0 +1,62 @@
+package com.lms.app.util;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * DbExecutor Utility.
+ * 
+ * Purpose:
+ * - Runs database work off the JavaFX Application Thread.
+ * - Each task gets its own virtual thread, so a slow query or BLOB transfer
+ * never freezes the UI and never starves other queries.
+ * - Results come back as `CompletableFuture`s; use `FxAsync` to hand them back
+ * to the UI.
+ */
+public class DbExecutor {
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * A unit of database work that may throw `SQLException`.
+     */
+    @FunctionalInterface
+    public interface SqlTask<T> {
+        T call() throws SQLException;
+    }
+
+    /**
+     * A unit of database work with no result.
+     */
+    @FunctionalInterface
+    public interface SqlAction {
+        void run() throws SQLException;
+    }
+
+    public static <T> CompletableFuture<T> supply(SqlTask<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, EXECUTOR);
+    }
+
+    public static CompletableFuture<Void> run(SqlAction action) {
+        return supply(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Stops accepting new work. Called once when the application exits.
+     */
+    public static void shutdown() {
+        EXECUTOR.shutdown();
+    }
+}
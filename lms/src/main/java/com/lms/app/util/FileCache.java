@@ -0,0 +1,223 @@
+package com.lms.app.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * FileCache Utility.
+ *
+ * Purpose:
+ * - Copies uploaded files to local disk so they can be opened with the system
+ * viewer, from either the external `FileStore` or a LONGBLOB column.
+ * - Reads a BLOB with one query (`BlobInputStream`) and records its SHA-256
+ * in `blob_digests` on the way, so later opens never make MySQL read the
+ * BLOB just to find out whether the local copy is current.
+ * - Keeps local copies keyed by (table, id, content hash): reopening an
+ * unchanged file skips the download entirely.
+ * - Evicts least-recently-opened files past `MAX_CACHE_BYTES` and deletes the
+ * whole cache directory when the application exits.
+ */
+public class FileCache {
+
+    private static final long MAX_CACHE_BYTES = 1024L * 1024 * 1024; // 1 GB
+
+    private static Path cacheDir;
+    private static long cachedBytes;
+    private static final Map<String, Path> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Returns a local copy of a stored file, downloading it only if needed.
+     *
+     * Logic:
+     * 1. Reads the row's hash column, and for rows still in a BLOB the hash
+     * recorded in `blob_digests` by an earlier download (primary-key lookups;
+     * the BLOB itself is not touched).
+     * 2. If a file with that (table, id, hash) is already cached, returns it.
+     * 3. Otherwise copies it from the `FileStore`, or from the BLOB in one read
+     * while hashing it, records the hash, and adds the file to the cache.
+     *
+     * Call from a background thread (see `DbExecutor`).
+     *
+     * @param column   Which table/column holds the file.
+     * @param id       Row id.
+     * @param fileName Name (with extension) to give the local file, so the
+     *                 system opens it with the right application.
+     * @return The local file, or null if the row has no file.
+     */
+    public static File open(BlobColumn column, int id, String fileName) throws SQLException {
+        String infoSql = "SELECT t." + column.getHashColumn() + " AS stored_hash, d.hash AS blob_hash "
+                + "FROM " + column.getTable() + " t "
+                + "LEFT JOIN blob_digests d ON d.table_name = ? AND d.row_id = t.id WHERE t.id = ?";
+
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            String storedHash;
+            String blobHash;
+            try (PreparedStatement stmt = conn.prepareStatement(infoSql)) {
+                stmt.setString(1, column.getTable());
+                stmt.setInt(2, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (!rs.next())
+                        return null;
+                    storedHash = rs.getString("stored_hash");
+                    blobHash = rs.getString("blob_hash");
+                }
+            }
+            String hash = storedHash != null ? storedHash : blobHash;
+            if (hash != null) {
+                Path cached = lookup(cacheKey(column, id, hash));
+                if (cached != null)
+                    return cached.toFile();
+            }
+
+            Path staging = getCacheDir().resolve("staging");
+            Files.createDirectories(staging);
+            Path part = Files.createTempFile(staging, "download_", ".part");
+            if (storedHash != null) {
+                try (InputStream in = FileHandler.requireFileStore().open(storedHash);
+                        OutputStream out = Files.newOutputStream(part)) {
+                    in.transferTo(out);
+                } catch (IOException e) {
+                    Files.deleteIfExists(part);
+                    throw e;
+                }
+            } else {
+                MessageDigest digest = newSha256();
+                BlobInputStream blob = BlobInputStream.open(conn, column, id);
+                if (blob == null) {
+                    Files.deleteIfExists(part);
+                    return null;
+                }
+                try (InputStream in = new DigestInputStream(blob, digest);
+                        OutputStream out = Files.newOutputStream(part)) {
+                    in.transferTo(out);
+                } catch (IOException e) {
+                    Files.deleteIfExists(part);
+                    throw e;
+                }
+                hash = HexFormat.of().formatHex(digest.digest());
+                if (!hash.equals(blobHash))
+                    recordDigest(conn, column, id, hash);
+            }
+
+            String key = cacheKey(column, id, hash);
+            Path entryDir = getCacheDir().resolve(key);
+            Files.createDirectories(entryDir);
+            Path target = entryDir.resolve(sanitize(fileName));
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            store(key, entryDir, Files.size(target));
+            return target.toFile();
+        } catch (IOException e) {
+            throw new SQLException("Could not download file: " + e.getMessage(), e);
+        }
+    }
+
+    private static String cacheKey(BlobColumn column, int id, String hash) {
+        return column.getTable() + "-" + id + "-" + hash.substring(0, 16);
+    }
+
+    /**
+     * Remembers a BLOB's hash; `StoredFileDao.release` forgets it again when
+     * the row is deleted or its file replaced.
+     */
+    private static void recordDigest(Connection conn, BlobColumn column, int id, String hash) throws SQLException {
+        String sql = "INSERT INTO blob_digests (table_name, row_id, hash) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE hash = VALUES(hash)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, column.getTable());
+            stmt.setInt(2, id);
+            stmt.setString(3, hash);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static synchronized Path lookup(String key) {
+        Path entryDir = entries.get(key);
+        if (entryDir == null)
+            return null;
+        try (Stream<Path> files = Files.list(entryDir)) {
+            return files.filter(p -> !p.getFileName().toString().endsWith(".part")).findFirst().orElse(null);
+        } catch (IOException e) {
+            // Entry was removed from disk behind our back; download again
+            entries.remove(key);
+            return null;
+        }
+    }
+
+    private static synchronized void store(String key, Path entryDir, long size) {
+        if (entries.put(key, entryDir) == null) {
+            cachedBytes += size;
+        }
+        Iterator<Map.Entry<String, Path>> it = entries.entrySet().iterator();
+        while (cachedBytes > MAX_CACHE_BYTES && it.hasNext()) {
+            Map.Entry<String, Path> eldest = it.next();
+            if (eldest.getKey().equals(key))
+                continue;
+            cachedBytes -= deleteRecursively(eldest.getValue());
+            it.remove();
+        }
+    }
+
+    private static synchronized Path getCacheDir() throws IOException {
+        if (cacheDir == null) {
+            cacheDir = Files.createTempDirectory("lms_cache_");
+            cacheDir.toFile().deleteOnExit();
+        }
+        return cacheDir;
+    }
+
+    private static String sanitize(String fileName) {
+        return fileName.replaceAll("[\\\\/:*?\"<>|]", "_");
+    }
+
+    private static long deleteRecursively(Path dir) {
+        long freed = 0;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                if (Files.isRegularFile(p))
+                    freed += Files.size(p);
+                Files.deleteIfExists(p);
+            }
+        } catch (IOException e) {
+            // The OS viewer may still hold the file open (Windows); leave it
+        }
+        return freed;
+    }
+
+    /**
+     * Deletes every cached file. Called once when the application exits.
+     */
+    public static synchronized void clear() {
+        if (cacheDir != null) {
+            deleteRecursively(cacheDir);
+            cacheDir = null;
+        }
+        entries.clear();
+        cachedBytes = 0;
+    }
+}
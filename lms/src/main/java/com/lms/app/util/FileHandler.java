@@ -1,12 +1,20 @@
 package com.lms.app.util;
 
 import javafx.scene.image.Image;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
 /**
  * FileHandler Utility.
@@ -19,9 +27,33 @@ import java.nio.file.StandardCopyOption;
  * bytes so it can be opened/viewed by the user.
  * - `getImageFromBytes(byte[])`: Helper to convert database bytes directly into
  * a JavaFX Image.
+ * - `openForUpload(File, ProgressListener)`: Opens a buffered stream for
+ * `PreparedStatement.setBinaryStream` that reports upload progress.
+ * - `getFileStore()`: The configured external `FileStore`, or null when files
+ * are kept in LONGBLOB columns.
  */
 public class FileHandler {
 
+    /**
+     * Largest file accepted for module, assignment and submission uploads.
+     * Uploads are streamed, so this is bounded by the MySQL server's
+     * `max_allowed_packet`, not by client heap.
+     */
+    public static final long MAX_UPLOAD_BYTES = 512L * 1024 * 1024;
+
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+
+    private static FileStore fileStore;
+    private static boolean fileStoreLoaded;
+
+    /**
+     * Receives progress updates while a file is streamed.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long bytesDone, long totalBytes);
+    }
+
     /**
      * Reads a File from the disk and converts it into a Byte Array.
      * 
@@ -47,12 +79,178 @@ public class FileHandler {
         }
     }
 
+    /**
+     * Opens a File for streaming into a BLOB column.
+     * 
+     * Logic:
+     * 1. Wraps a `FileInputStream` in a fixed-size buffer so only
+     * `UPLOAD_BUFFER_SIZE` bytes are held in memory at a time.
+     * 2. Counts bytes as the JDBC driver reads them and reports them to
+     * `listener` (may be null).
+     * 
+     * Usage:
+     * - Pass the stream and `file.length()` to `setBinaryStream` on a statement
+     * from `DatabaseConnection.prepareStreaming`.
+     * 
+     * @param file     The file selected by the user.
+     * @param listener Progress callback, invoked on the uploading thread.
+     * @return An InputStream the caller must close.
+     */
+    public static InputStream openForUpload(File file, ProgressListener listener) throws IOException {
+        long total = file.length();
+        InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()), UPLOAD_BUFFER_SIZE);
+        if (listener == null)
+            return in;
+        return new FilterInputStream(in) {
+            private long done;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0)
+                    advance(1);
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buf, int off, int len) throws IOException {
+                int n = super.read(buf, off, len);
+                if (n > 0)
+                    advance(n);
+                return n;
+            }
+
+            private void advance(long n) {
+                done += n;
+                listener.onProgress(done, total);
+            }
+        };
+    }
+
+    /**
+     * Computes the lowercase hex SHA-256 of a local file.
+     * 
+     * Usage:
+     * - Lets `StoredFileDao.bindFile` skip copying a file the `FileStore`
+     * already holds (hashing a local file is much cheaper than writing it to a
+     * network share).
+     */
+    public static String sha256(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        try (InputStream in = new DigestInputStream(
+                new BufferedInputStream(Files.newInputStream(file.toPath()), UPLOAD_BUFFER_SIZE), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Returns the store new uploads go to.
+     * 
+     * Logic:
+     * - `storage.type=local` with `storage.root` set: a `LocalFileStore` rooted
+     * there. Every client must see the same directory (e.g. a network share).
+     * - Otherwise (`storage.type=database`, the default): null, and callers keep
+     * writing LONGBLOB columns.
+     * 
+     * Files already moved to the store are read through their hash column no
+     * matter what this returns.
+     */
+    public static synchronized FileStore getFileStore() {
+        if (!fileStoreLoaded) {
+            fileStoreLoaded = true;
+            fileStore = createFileStore();
+        }
+        return fileStore;
+    }
+
+    private static FileStore createFileStore() {
+        String type = AppConfig.get("storage.type", "database");
+        String root = AppConfig.get("storage.root", null);
+        if (!"local".equalsIgnoreCase(type))
+            return null;
+        if (root == null) {
+            System.err.println("Warning: storage.type=local but storage.root is not set; using database storage.");
+            return null;
+        }
+        try {
+            return new LocalFileStore(Paths.get(root));
+        } catch (IOException e) {
+            System.err.println("Warning: Could not open file store at " + root + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the store that holds files already referenced by hash. Unlike
+     * `getFileStore()` this never returns null.
+     * 
+     * @throws IOException If a hash is set but no store is configured.
+     */
+    public static FileStore requireFileStore() throws IOException {
+        FileStore store = getFileStore();
+        if (store == null)
+            throw new IOException("File is in the external store but storage.root is not configured.");
+        return store;
+    }
+
+    /**
+     * Returns the bytes of a small stored file (course cover, profile picture).
+     * 
+     * @param blob The LONGBLOB column value (legacy rows).
+     * @param hash The hash column value (rows moved to the `FileStore`).
+     * @return The image bytes, or null if the row has neither.
+     */
+    public static byte[] readImageBytes(byte[] blob, String hash) {
+        if (blob != null || hash == null)
+            return blob;
+        try (InputStream in = requireFileStore().open(hash)) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            System.err.println("Error reading stored image " + hash + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the extension of a file name (without the dot), truncated to fit the
+     * 10-character `file_type` columns, or `defaultType` if there is none.
+     */
+    public static String getFileType(String fileName, String defaultType) {
+        String ext = defaultType;
+        int dotIndex = fileName.lastIndexOf(".");
+        if (dotIndex >= 0 && dotIndex < fileName.length() - 1) {
+            ext = fileName.substring(dotIndex + 1);
+        }
+        if (ext != null && ext.length() > 10)
+            ext = ext.substring(0, 10);
+        return ext;
+    }
+
     public static Image getImageFromBytes(byte[] imageData) {
         if (imageData == null || imageData.length == 0)
             return null;
         return new Image(new java.io.ByteArrayInputStream(imageData));
     }
 
+    /**
+     * Formats a byte count for display, e.g. "512 B", "1.4 MB".
+     */
+    public static String formatSize(long bytes) {
+        if (bytes < 1024)
+            return bytes + " B";
+        if (bytes < 1024 * 1024)
+            return String.format("%.1f KB", bytes / 1024.0);
+        if (bytes < 1024L * 1024 * 1024)
+            return String.format("%.1f MB", bytes / (1024.0 * 1024));
+        return String.format("%.1f GB", bytes / (1024.0 * 1024 * 1024));
+    }
+
     public static File writeBytesToTempFile(byte[] data, String fileName) {
         try {
             Path tempPath = Files.createTempFile("lms_", "_" + fileName);
@@ -0,0 +1,44 @@
+package com.lms.app.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * FileStore.
+ * 
+ * Purpose:
+ * - Storage for uploaded files outside MySQL, addressed by the SHA-256 of their
+ * content.
+ * - The database only keeps the hash (e.g. `modules.module_hash`); identical
+ * uploads map to the same stored file.
+ * - `FileHandler.getFileStore()` returns the configured implementation.
+ */
+public interface FileStore {
+
+    /**
+     * Stores the stream's content and closes the stream.
+     * 
+     * @return The lowercase hex SHA-256 of the content.
+     */
+    String put(InputStream content) throws IOException;
+
+    /**
+     * Opens a stored file for reading.
+     * 
+     * @throws java.nio.file.NoSuchFileException If no file has this hash.
+     */
+    InputStream open(String hash) throws IOException;
+
+    /**
+     * Returns a local path to the stored file if the store is on a (possibly
+     * network-mounted) filesystem, or null if it must be read via `open`.
+     */
+    Path localPath(String hash);
+
+    boolean exists(String hash);
+
+    long size(String hash) throws IOException;
+
+    void delete(String hash) throws IOException;
+}
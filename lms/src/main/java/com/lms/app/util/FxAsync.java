@@ -0,0 +1,103 @@
+package com.lms.app.util;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableView;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * FxAsync Utility.
+ * 
+ * Purpose:
+ * - Delivers the result of background work (see `DbExecutor`) back on the
+ * JavaFX Application Thread via `Platform.runLater`.
+ * - Shows a loading indicator while the work is running.
+ * - Reports failures with a consistent error dialog.
+ */
+public class FxAsync {
+
+    /**
+     * Waits for `future` and passes its result to `onSuccess` on the FX thread.
+     * 
+     * @param future    The background work.
+     * @param indicator A node (usually a `ProgressIndicator`) shown while the work
+     *                  runs; may be null.
+     * @param onSuccess Receives the result on the FX thread.
+     */
+    public static <T> void load(CompletableFuture<T> future, Node indicator, Consumer<T> onSuccess) {
+        load(future, indicator, onSuccess, FxAsync::showFailure);
+    }
+
+    public static <T> void load(CompletableFuture<T> future, Node indicator, Consumer<T> onSuccess,
+            Consumer<Throwable> onError) {
+        setBusy(indicator, true);
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            setBusy(indicator, false);
+            if (error != null) {
+                onError.accept(unwrap(error));
+            } else {
+                onSuccess.accept(result);
+            }
+        }));
+    }
+
+    /**
+     * Same as `load`, but shows a spinner as the table's placeholder until the
+     * rows arrive.
+     */
+    public static <T> void loadInto(TableView<?> table, CompletableFuture<T> future, Consumer<T> onSuccess) {
+        Node previousPlaceholder = table.getPlaceholder();
+        table.setPlaceholder(new ProgressIndicator());
+        load(future, null, result -> {
+            table.setPlaceholder(previousPlaceholder);
+            onSuccess.accept(result);
+        }, error -> {
+            table.setPlaceholder(previousPlaceholder);
+            showFailure(error);
+        });
+    }
+
+    /**
+     * Returns a listener that mirrors upload/download progress into `bar`. Updates
+     * are only posted to the FX thread when the whole percentage changes.
+     */
+    public static FileHandler.ProgressListener progressTo(ProgressBar bar) {
+        bar.setProgress(0);
+        return new FileHandler.ProgressListener() {
+            private int lastPercent = -1;
+
+            @Override
+            public void onProgress(long bytesDone, long totalBytes) {
+                int percent = totalBytes > 0 ? (int) (bytesDone * 100 / totalBytes) : 0;
+                if (percent != lastPercent) {
+                    lastPercent = percent;
+                    Platform.runLater(() -> bar.setProgress(percent / 100.0));
+                }
+            }
+        };
+    }
+
+    private static void setBusy(Node indicator, boolean busy) {
+        if (indicator != null) {
+            indicator.setVisible(busy);
+            indicator.setManaged(busy);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    static void showFailure(Throwable error) {
+        error.printStackTrace();
+        AlertHelper.showError("Database Error", "Could not load data: " + error.getMessage());
+    }
+}
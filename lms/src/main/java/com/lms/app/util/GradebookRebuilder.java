@@ -0,0 +1,31 @@
+package com.lms.app.util;
+
+import com.lms.app.dao.GradebookDao;
+
+import java.sql.SQLException;
+
+/**
+ * GradebookRebuilder Utility.
+ *
+ * Purpose:
+ * - Recomputes `gradebook_summary` from the raw submissions.
+ * - Only needed after submissions were changed outside the application
+ * (manual SQL, restored backups); the application keeps the table current
+ * itself.
+ * - Safe to run while clients are online: the rebuild is one transaction.
+ */
+public class GradebookRebuilder {
+
+    public static void main(String[] args) {
+        try {
+            long start = System.currentTimeMillis();
+            int rows = GradebookDao.rebuild();
+            System.out.println("Rebuilt gradebook_summary: " + rows + " row(s) in "
+                    + (System.currentTimeMillis() - start) + " ms.");
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+}
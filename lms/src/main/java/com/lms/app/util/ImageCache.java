@@ -0,0 +1,99 @@
+package com.lms.app.util;
+
+import javafx.scene.image.Image;
+
+import java.io.ByteArrayInputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ImageCache Utility.
+ *
+ * Purpose:
+ * - Keeps decoded thumbnails in memory so reopening the dashboard, catalog or
+ * a course does not decode the same image again.
+ * - Entries are keyed by (table, id, image version, display size): saving a
+ * new picture bumps the version, so a stale image is never returned.
+ * - Decodes at the requested size and evicts the least recently used entries
+ * once their pixels exceed `MAX_CACHE_BYTES`.
+ * - Safe to call from background threads; callers decode there (e.g. inside
+ * the `DbExecutor` task that fetched the bytes) and only attach on the
+ * JavaFX Application Thread.
+ */
+public class ImageCache {
+
+    private static final long MAX_CACHE_BYTES = 64L * 1024 * 1024; // decoded ARGB pixels
+
+    private static final Map<String, Image> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private static long cachedBytes;
+
+    /**
+     * Returns the decoded image, decoding `data` only on a cache miss.
+     *
+     * @param table   Table the image belongs to (`users`, `courses`).
+     * @param id      Row id.
+     * @param version The row's `*_image_version`.
+     * @param data    Encoded thumbnail; null means "no image".
+     * @param width   Width to decode to (aspect ratio is kept).
+     * @param height  Height to decode to.
+     * @return The image, or null if there is none or it cannot be decoded.
+     */
+    public static Image get(String table, int id, int version, byte[] data, double width, double height) {
+        if (data == null || data.length == 0)
+            return null;
+        String key = key(table, id, version, width, height);
+        synchronized (ImageCache.class) {
+            Image cached = entries.get(key);
+            if (cached != null)
+                return cached;
+        }
+
+        Image image = new Image(new ByteArrayInputStream(data), width, height, true, true);
+        if (image.isError())
+            return null;
+        put(key, image);
+        return image;
+    }
+
+    /**
+     * Returns the image only if it is already decoded, so a caller on the
+     * JavaFX Application Thread can show it at once and decode misses in the
+     * background.
+     */
+    public static synchronized Image peek(String table, int id, int version, double width, double height) {
+        return entries.get(key(table, id, version, width, height));
+    }
+
+    private static String key(String table, int id, int version, double width, double height) {
+        return table + "-" + id + "-v" + version + "-" + (int) width + "x" + (int) height;
+    }
+
+    private static synchronized void put(String key, Image image) {
+        Image previous = entries.put(key, image);
+        if (previous != null)
+            cachedBytes -= sizeOf(previous);
+        cachedBytes += sizeOf(image);
+
+        Iterator<Map.Entry<String, Image>> it = entries.entrySet().iterator();
+        while (cachedBytes > MAX_CACHE_BYTES && it.hasNext()) {
+            Map.Entry<String, Image> eldest = it.next();
+            if (eldest.getKey().equals(key))
+                continue;
+            cachedBytes -= sizeOf(eldest.getValue());
+            it.remove();
+        }
+    }
+
+    private static long sizeOf(Image image) {
+        return (long) image.getWidth() * (long) image.getHeight() * 4;
+    }
+
+    /**
+     * Drops every cached image, e.g. on logout.
+     */
+    public static synchronized void clear() {
+        entries.clear();
+        cachedBytes = 0;
+    }
+}
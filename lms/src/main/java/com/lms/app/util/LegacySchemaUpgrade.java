@@ -0,0 +1,109 @@
+package com.lms.app.util;
+
+import com.lms.app.dao.StoredFileDao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * LegacySchemaUpgrade Utility.
+ *
+ * Purpose:
+ * - Migration V2: brings databases created before versioned migrations up to
+ * the baseline, replacing the old start-up patches (`SchemaPatcher` and the
+ * block in `Main.main`).
+ * - Reads the existing columns and indexes from `information_schema` once and
+ * only issues the DDL that is actually missing, so no statement is expected
+ * to fail.
+ * - On a database created from `V1__baseline.sql` it finds nothing to do.
+ */
+class LegacySchemaUpgrade {
+
+    private static final String[][] COLUMNS = {
+            { "assignments", "assignment_data", "LONGBLOB" },
+            { "assignments", "file_type", "VARCHAR(10)" },
+            { "submissions", "file_type", "VARCHAR(10)" },
+            { "submissions", "submission_data", "LONGBLOB" },
+            { "courses", "department_id", "INT DEFAULT 1" },
+            { "courses", "academic_year_id", "INT DEFAULT 1" },
+            { "users", "profile_thumb", "MEDIUMBLOB" },
+            { "users", "profile_image_version", "INT NOT NULL DEFAULT 0" },
+            { "courses", "course_thumb", "MEDIUMBLOB" },
+            { "courses", "course_image_version", "INT NOT NULL DEFAULT 0" },
+    };
+
+    /**
+     * Composite indexes as { table, index, columns, redundant foreign key index }.
+     */
+    private static final String[][] INDEXES = {
+            { "assignments", "idx_assignments_module_due", "module_id, due_date", "module_id" },
+            { "submissions", "idx_submissions_assignment_score", "assignment_id, score", "assignment_id" },
+            { "submissions", "idx_submissions_student_assignment", "student_id, assignment_id", "student_id" },
+    };
+
+    private LegacySchemaUpgrade() {
+    }
+
+    static void apply(Connection conn) throws SQLException {
+        Set<String> columns = readNames(conn,
+                "SELECT CONCAT(table_name, '.', column_name) FROM information_schema.columns "
+                        + "WHERE table_schema = DATABASE()");
+        Set<String> indexes = readNames(conn,
+                "SELECT DISTINCT CONCAT(table_name, '.', index_name) FROM information_schema.statistics "
+                        + "WHERE table_schema = DATABASE()");
+
+        try (Statement stmt = conn.createStatement()) {
+            for (String[] column : COLUMNS) {
+                addColumn(stmt, columns, column[0], column[1], column[2]);
+            }
+            for (BlobColumn column : BlobColumn.values()) {
+                addColumn(stmt, columns, column.getTable(), column.getHashColumn(), "CHAR(64)");
+            }
+
+            // stored_files from before reference counting
+            if (!columns.contains("stored_files.ref_count")) {
+                stmt.execute("ALTER TABLE stored_files ADD COLUMN ref_count INT NOT NULL DEFAULT 0, "
+                        + "ADD COLUMN updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP");
+                StoredFileDao.recount(conn);
+                System.out.println("Added ref_count column.");
+            }
+
+            // Each composite index starts with its foreign key column, which
+            // makes the single-column index MySQL created for the key redundant
+            for (String[] index : INDEXES) {
+                if (indexes.contains(index[0] + "." + index[1]))
+                    continue;
+                stmt.execute("CREATE INDEX " + index[1] + " ON " + index[0] + " (" + index[2] + ")");
+                System.out.println("Added index " + index[1] + ".");
+                if (indexes.contains(index[0] + "." + index[3])) {
+                    stmt.execute("ALTER TABLE " + index[0] + " DROP INDEX " + index[3]);
+                }
+            }
+        }
+    }
+
+    private static void addColumn(Statement stmt, Set<String> existing, String table, String column,
+            String definition) throws SQLException {
+        if (existing.contains(table + "." + column))
+            return;
+        stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        existing.add(table + "." + column);
+        System.out.println("Added " + table + "." + column + " column.");
+    }
+
+    private static Set<String> readNames(Connection conn, String sql) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql);
+                ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                names.add(rs.getString(1).toLowerCase());
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,98 @@
+package com.lms.app.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * LocalFileStore.
+ * 
+ * Purpose:
+ * - A `FileStore` on a local or network-mounted directory (`storage.root`).
+ * - Files are named by their SHA-256 and sharded two levels deep
+ * (`ab/cd/abcd...`) so no directory grows too large.
+ * - Writes go to a temp file first and are moved into place atomically, so a
+ * crashed upload never leaves a truncated file under a valid hash.
+ */
+public class LocalFileStore implements FileStore {
+
+    private final Path root;
+    private final Path tmpDir;
+
+    public LocalFileStore(Path root) throws IOException {
+        this.root = root;
+        this.tmpDir = root.resolve("tmp");
+        Files.createDirectories(tmpDir);
+    }
+
+    @Override
+    public String put(InputStream content) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        Path tmp = Files.createTempFile(tmpDir, "upload_", ".part");
+        try {
+            try (InputStream in = new DigestInputStream(content, digest);
+                    OutputStream out = Files.newOutputStream(tmp)) {
+                in.transferTo(out);
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathFor(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Another client stored the same content first
+                }
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public InputStream open(String hash) throws IOException {
+        return Files.newInputStream(pathFor(hash));
+    }
+
+    @Override
+    public Path localPath(String hash) {
+        return pathFor(hash);
+    }
+
+    @Override
+    public boolean exists(String hash) {
+        return Files.exists(pathFor(hash));
+    }
+
+    @Override
+    public long size(String hash) throws IOException {
+        return Files.size(pathFor(hash));
+    }
+
+    @Override
+    public void delete(String hash) throws IOException {
+        Files.deleteIfExists(pathFor(hash));
+    }
+
+    private Path pathFor(String hash) {
+        if (!hash.matches("[0-9a-f]{64}"))
+            throw new IllegalArgumentException("Not a SHA-256 hash: " + hash);
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+}
@@ -0,0 +1,118 @@
+package com.lms.app.util;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.scene.Node;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+import javafx.util.Callback;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * PagedTableLoader Utility.
+ *
+ * Purpose:
+ * - Fills a `TableView` one page at a time instead of loading every row up
+ * front.
+ * - Uses keyset pagination: each page is requested with the last row already
+ * shown, so the query can continue with `WHERE (sort_key, id) > (...)`
+ * instead of an OFFSET that rescans skipped rows.
+ * - Requests the next page when a row near the end of the loaded items is
+ * rendered, i.e. as the user scrolls down.
+ * - Wraps the table's existing row factory, so set that (e.g. for
+ * double-click handling) before creating the loader.
+ */
+public class PagedTableLoader<T> {
+
+    /**
+     * Fetches up to `limit` rows following `after` (null for the first page).
+     * Runs on a `DbExecutor` thread.
+     */
+    @FunctionalInterface
+    public interface PageQuery<T> {
+        List<T> fetch(T after, int limit) throws SQLException;
+    }
+
+    private final TableView<T> table;
+    private final int pageSize;
+    private final ObservableList<T> items = FXCollections.observableArrayList();
+    private final Node emptyPlaceholder;
+
+    private PageQuery<T> query;
+    private boolean loading;
+    private boolean exhausted;
+    private int generation;
+
+    public PagedTableLoader(TableView<T> table, int pageSize) {
+        this.table = table;
+        this.pageSize = pageSize;
+        this.emptyPlaceholder = table.getPlaceholder();
+        table.setItems(items);
+        Callback<TableView<T>, TableRow<T>> rowFactory = table.getRowFactory();
+        table.setRowFactory(tv -> {
+            TableRow<T> row = rowFactory != null ? rowFactory.call(tv) : new TableRow<>();
+            row.indexProperty().addListener((obs, oldIndex, index) -> {
+                if (index.intValue() >= 0 && index.intValue() >= items.size() - pageSize / 4) {
+                    loadMore();
+                }
+            });
+            return row;
+        });
+    }
+
+    /**
+     * Clears the table and starts loading from the first page of `query`.
+     * Pages still in flight for a previous query are discarded.
+     */
+    public void load(PageQuery<T> query) {
+        this.query = query;
+        generation++;
+        loading = false;
+        exhausted = false;
+        items.clear();
+        loadMore();
+    }
+
+    /**
+     * Reloads the current query from the first page.
+     */
+    public void reload() {
+        if (query != null)
+            load(query);
+    }
+
+    public ObservableList<T> getItems() {
+        return items;
+    }
+
+    private void loadMore() {
+        if (loading || exhausted || query == null)
+            return;
+        loading = true;
+
+        int requestGeneration = generation;
+        PageQuery<T> pageQuery = query;
+        T after = items.isEmpty() ? null : items.get(items.size() - 1);
+        if (after == null)
+            table.setPlaceholder(new ProgressIndicator());
+
+        FxAsync.load(DbExecutor.supply(() -> pageQuery.fetch(after, pageSize)), null, page -> {
+            if (requestGeneration != generation)
+                return;
+            table.setPlaceholder(emptyPlaceholder);
+            loading = false;
+            exhausted = page.size() < pageSize;
+            items.addAll(page);
+        }, error -> {
+            if (requestGeneration != generation)
+                return;
+            table.setPlaceholder(emptyPlaceholder);
+            loading = false;
+            exhausted = true; // don't retry on every scroll; reload() tries again
+            FxAsync.showFailure(error);
+        });
+    }
+}
@@ -0,0 +1,124 @@
+package com.lms.app.util;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * PasswordHasher Utility.
+ *
+ * Purpose:
+ * - Stores passwords as salted PBKDF2-HMAC-SHA256 hashes in the form
+ * `pbkdf2-sha256$<iterations>$<salt>$<hash>` (Base64, no padding), which
+ * fits the existing `users.password VARCHAR(100)`.
+ * - The work factor comes from `auth.pbkdf2.iterations`. Run this class to
+ * measure how many iterations take a given time on the current machine.
+ * - Still accepts plaintext rows written before hashing was introduced;
+ * `needsRehash` tells the caller to replace them (and hashes made with a
+ * different work factor) after a successful login.
+ */
+public class PasswordHasher {
+
+    private static final String SCHEME = "pbkdf2-sha256";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int DEFAULT_ITERATIONS = 600_000; // OWASP recommendation for PBKDF2-SHA256
+    private static final int MIN_ITERATIONS = 10_000;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private static String dummyHash;
+
+    /**
+     * Prints the iteration count whose hash takes the given time (default
+     * 250 ms) on this machine, for `auth.pbkdf2.iterations`.
+     */
+    public static void main(String[] args) {
+        long targetMillis = args.length > 0 ? Long.parseLong(args[0]) : 250;
+        int probe = 50_000;
+        derive("warm-up", new byte[SALT_BYTES], probe);
+
+        long start = System.nanoTime();
+        derive("benchmark", new byte[SALT_BYTES], probe);
+        double millisPerIteration = (System.nanoTime() - start) / 1_000_000.0 / probe;
+
+        int iterations = (int) Math.max(MIN_ITERATIONS, targetMillis / millisPerIteration);
+        System.out.println("auth.pbkdf2.iterations=" + iterations + "  (about " + targetMillis
+                + " ms per login on this machine; currently " + getIterations() + ")");
+    }
+
+    public static int getIterations() {
+        return Math.max(MIN_ITERATIONS, AppConfig.getInt("auth.pbkdf2.iterations", DEFAULT_ITERATIONS));
+    }
+
+    /**
+     * Hashes a password with a fresh salt and the configured work factor.
+     */
+    public static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        int iterations = getIterations();
+        return SCHEME + "$" + iterations + "$" + ENCODER.encodeToString(salt) + "$"
+                + ENCODER.encodeToString(derive(password, salt, iterations));
+    }
+
+    /**
+     * Checks a password against a stored value in constant time.
+     *
+     * @param stored A hash from `hash`, a legacy plaintext password, or null
+     *               for an unknown user (a dummy hash is still computed so the
+     *               response time does not reveal which usernames exist).
+     */
+    public static boolean verify(String password, String stored) {
+        if (stored == null) {
+            verify(password, getDummyHash());
+            return false;
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4 || !SCHEME.equals(parts[0])) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            byte[] expected = DECODER.decode(parts[3]);
+            byte[] actual = derive(password, DECODER.decode(parts[2]), Integer.parseInt(parts[1]));
+            return MessageDigest.isEqual(expected, actual);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return True for plaintext values and for hashes whose work factor
+     *         differs from the configured one.
+     */
+    public static boolean needsRehash(String stored) {
+        String[] parts = stored.split("\\$");
+        return parts.length != 4 || !SCHEME.equals(parts[0])
+                || !parts[1].equals(String.valueOf(getIterations()));
+    }
+
+    private static synchronized String getDummyHash() {
+        if (dummyHash == null)
+            dummyHash = hash("dummy");
+        return dummyHash;
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
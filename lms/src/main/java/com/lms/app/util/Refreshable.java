@@ -0,0 +1,14 @@
+package com.lms.app.util;
+
+/**
+ * Refreshable.
+ *
+ * Purpose:
+ * - Implemented by controllers of views kept alive by `ViewRegistry`.
+ * - `refresh()` is called on the JavaFX Application Thread each time the view
+ * is shown, including the first time, so the controller loads its data there
+ * instead of in `initialize()` (which may run on the preloading thread).
+ */
+public interface Refreshable {
+    void refresh();
+}
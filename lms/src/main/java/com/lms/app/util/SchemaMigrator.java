@@ -0,0 +1,301 @@
+package com.lms.app.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SchemaMigrator Utility.
+ *
+ * Purpose:
+ * - Brings the database schema up to date through numbered migrations, each
+ * applied exactly once and recorded in `schema_version`.
+ * - On a database that is already current, startup costs one SELECT on
+ * `schema_version`; no DDL runs and no metadata locks are taken.
+ * - Pending migrations are applied under a MySQL named lock, so clients
+ * started at the same time do not race each other.
+ * - SQL migrations are stored with their SHA-256; an applied script that was
+ * edited afterwards is reported instead of silently ignored.
+ *
+ * Adding a migration: put `V<n>__<description>.sql` in
+ * `src/main/resources/db/migration/` and append it to `MIGRATIONS`. Never edit
+ * a script that has been released; add a new one. MySQL commits every DDL
+ * statement on its own, so a failed script is re-run from the top: each
+ * statement must succeed again (`IF NOT EXISTS`, `INSERT IGNORE`), or the step
+ * must be written in Java and check `information_schema` first.
+ */
+public class SchemaMigrator {
+
+    private static final String SCRIPT_PATH = "/db/migration/";
+    private static final String LOCK_NAME = "lms_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+    private static final int ER_NO_SUCH_TABLE = 1146;
+
+    /**
+     * One step of the schema history.
+     *
+     * @param script SQL file under `db/migration/`, or null for a Java step.
+     * @param action Java step, or null for an SQL script.
+     */
+    private record Migration(int version, String description, String script, JavaMigration action) {
+    }
+
+    /**
+     * A migration that needs logic SQL alone cannot express.
+     */
+    @FunctionalInterface
+    interface JavaMigration {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "baseline", "V1__baseline.sql", null),
+            new Migration(2, "upgrade databases created before versioned migrations", null,
+                    LegacySchemaUpgrade::apply),
+            new Migration(3, "gradebook summary", "V3__gradebook_summary.sql", null),
+            new Migration(4, "catalog search", null, SchemaMigrator::addCatalogSearchIndexes),
+            new Migration(5, "catalog cache", "V5__catalog_cache.sql", null),
+            new Migration(6, "blob digests", "V6__blob_digests.sql", null));
+
+    /**
+     * Runs from the command line to migrate without starting the UI.
+     */
+    public static void main(String[] args) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            System.out.println("Database schema is at version " + currentVersion(conn) + ".");
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+
+    /**
+     * Applies every pending migration.
+     *
+     * Logic:
+     * 1. Reads the applied versions and checksums. If all migrations are
+     * applied, returns after verifying the checksums.
+     * 2. Otherwise takes the `GET_LOCK` named lock, creates `schema_version`
+     * if this is its first run, re-reads (another client may have finished
+     * meanwhile), and applies the rest in order, recording each one as soon as
+     * it succeeds.
+     * 3. A failed migration stops the run; the next start retries it.
+     */
+    public static void migrate(Connection conn) throws SQLException {
+        Map<Integer, String> applied = readApplied(conn);
+        if (applied.size() >= MIGRATIONS.size() && applied.keySet().containsAll(versions())) {
+            verifyChecksums(applied);
+            return;
+        }
+
+        if (!acquireLock(conn))
+            throw new SQLException("Timed out waiting for another client to finish migrating the database.");
+        try {
+            ensureVersionTable(conn);
+            applied = readApplied(conn);
+            for (Migration migration : MIGRATIONS) {
+                if (applied.containsKey(migration.version()))
+                    continue;
+                long start = System.currentTimeMillis();
+                String checksum = apply(conn, migration);
+                long elapsed = System.currentTimeMillis() - start;
+                record(conn, migration, checksum, elapsed);
+                System.out.println("Applied schema migration V" + migration.version() + " ("
+                        + migration.description() + ") in " + elapsed + " ms.");
+            }
+            verifyChecksums(readApplied(conn));
+        } finally {
+            releaseLock(conn);
+        }
+    }
+
+    /**
+     * @return The highest applied version, or 0 for an unmigrated database.
+     */
+    public static int currentVersion(Connection conn) throws SQLException {
+        return readApplied(conn).keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    private static List<Integer> versions() {
+        return MIGRATIONS.stream().map(Migration::version).toList();
+    }
+
+    /**
+     * Creates `schema_version` on a database that has never been migrated.
+     * Only called under the lock, never on the up-to-date path.
+     */
+    private static void ensureVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INT PRIMARY KEY, "
+                    + "description VARCHAR(200) NOT NULL, "
+                    + "checksum CHAR(64), "
+                    + "installed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                    + "execution_ms INT NOT NULL DEFAULT 0)");
+        }
+    }
+
+    /**
+     * @return Applied versions and their checksums; empty if `schema_version`
+     *         does not exist yet.
+     */
+    private static Map<Integer, String> readApplied(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        } catch (SQLException e) {
+            if (e.getErrorCode() != ER_NO_SUCH_TABLE)
+                throw e;
+        }
+        return applied;
+    }
+
+    private static String apply(Connection conn, Migration migration) throws SQLException {
+        if (migration.action() != null) {
+            migration.action().apply(conn);
+            return null;
+        }
+        String sql = readScript(migration.script());
+        try (Statement stmt = conn.createStatement()) {
+            for (String statement : splitStatements(sql)) {
+                stmt.execute(statement);
+            }
+        }
+        return sha256(sql);
+    }
+
+    /**
+     * V4: full-text indexes for `CourseDao.searchCatalog` (ranked MATCH ...
+     * AGAINST over course titles and descriptions, and over module titles).
+     * Each index is only added if missing, so a retry after one of them failed
+     * does not trip over the other. Formerly `V4__catalog_search.sql`; the
+     * checksum recorded for it is no longer checked.
+     */
+    private static void addCatalogSearchIndexes(Connection conn) throws SQLException {
+        addIndexIfMissing(conn, "courses", "ft_courses_text", "FULLTEXT INDEX ft_courses_text (title, description)");
+        addIndexIfMissing(conn, "modules", "ft_modules_title", "FULLTEXT INDEX ft_modules_title (title)");
+    }
+
+    private static void addIndexIfMissing(Connection conn, String table, String index, String definition)
+            throws SQLException {
+        String sql = "SELECT 1 FROM information_schema.statistics "
+                + "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ? LIMIT 1";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, table);
+            stmt.setString(2, index);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next())
+                    return;
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + table + " ADD " + definition);
+        }
+    }
+
+    private static void record(Connection conn, Migration migration, String checksum, long elapsedMillis)
+            throws SQLException {
+        String sql = "INSERT INTO schema_version (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, migration.version());
+            stmt.setString(2, migration.description());
+            stmt.setString(3, checksum);
+            stmt.setLong(4, elapsedMillis);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static void verifyChecksums(Map<Integer, String> applied) throws SQLException {
+        for (Migration migration : MIGRATIONS) {
+            String stored = applied.get(migration.version());
+            if (migration.script() == null || stored == null)
+                continue;
+            if (!stored.equals(sha256(readScript(migration.script())))) {
+                throw new SQLException("Schema migration V" + migration.version() + " (" + migration.script()
+                        + ") was changed after it was applied. Add a new migration instead.");
+            }
+        }
+    }
+
+    private static boolean acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            // The lock is released anyway when the session ends
+        }
+    }
+
+    /**
+     * Reads a script with line endings normalised, so the checksum does not
+     * depend on how the file was checked out.
+     */
+    private static String readScript(String name) throws SQLException {
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream(SCRIPT_PATH + name)) {
+            if (in == null)
+                throw new SQLException("Missing migration script " + SCRIPT_PATH + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new SQLException("Could not read migration script " + name, e);
+        }
+    }
+
+    /**
+     * Splits a script into statements ending with `;` at the end of a line,
+     * dropping `--` comment lines.
+     */
+    private static List<String> splitStatements(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--"))
+                continue;
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String statement = current.toString().trim();
+                statements.add(statement.substring(0, statement.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (!current.toString().isBlank())
+            statements.add(current.toString().trim());
+        return statements;
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.lms.app.util;
+
+import javafx.css.CssParser;
+
+import javax.imageio.ImageIO;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StartupOrchestrator Utility.
+ *
+ * Purpose:
+ * - Runs the slow parts of application start-up side by side instead of one
+ * after another, while the login window is built and shown:
+ * - `database`: opens the pool's first connections and runs the schema
+ * version check (`DatabaseConnection.getInstance()`), so the first login
+ * does not pay for them.
+ * - `styles`: parses `styles.css` once to load and compile the CSS parser.
+ * - `warm-up`: loads the controllers and initialises Java2D, ImageIO and
+ * SHA-256, which the dashboard otherwise hits on the first click.
+ * - Nothing waits for the background phases; a phase still running after
+ * `TIME_BOX_MILLIS` is reported as such and left to finish on its own.
+ * - Prints one line with the duration of every phase once start-up is over.
+ */
+public class StartupOrchestrator {
+
+    private static final long TIME_BOX_MILLIS = 5000;
+
+    private static final String[] HOT_CLASSES = {
+            "com.lms.app.controller.LoginController",
+            "com.lms.app.controller.DashboardController",
+            "com.lms.app.controller.StudentCatalogController",
+            "com.lms.app.controller.CourseViewerController",
+            "com.lms.app.controller.CourseManagerController",
+            "com.lms.app.controller.GradingController",
+            "com.lms.app.controller.StudentGradesController",
+            "com.lms.app.controller.UserManagerController",
+            "com.lms.app.controller.UserProfileController",
+            "javafx.scene.control.TableView",
+            "javafx.scene.control.ComboBox",
+            "javafx.scene.control.ListView",
+            "javafx.scene.control.ScrollPane",
+    };
+
+    /**
+     * A start-up step; any exception is reported, never rethrown.
+     */
+    @FunctionalInterface
+    public interface Phase<T> {
+        T run() throws Exception;
+    }
+
+    private final long startedAt = System.nanoTime();
+    private final Map<String, String> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final List<CompletableFuture<Void>> background = new ArrayList<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "lms-startup");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Starts every background phase. Call as early as possible (`Main.init`).
+     */
+    public void begin() {
+        inBackground("database", () -> {
+            DatabaseConnection.getInstance().getConnection().close(); // fails if the schema could not be migrated
+            return null;
+        });
+        inBackground("styles", () -> new CssParser().parse(getClass().getResource("/styles.css")));
+        inBackground("warm-up", () -> {
+            warmUp();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a phase on the calling thread and records its duration.
+     */
+    public <T> T time(String name, Phase<T> phase) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return phase.run();
+        } finally {
+            timings.put(name, millisSince(start) + " ms");
+        }
+    }
+
+    /**
+     * Marks the login window as shown and prints the timings once the
+     * background phases finish or the time box runs out, whichever is first.
+     */
+    public void loginShown() {
+        timings.put("login shown", millisSince(startedAt) + " ms");
+        ProcessHandle.current().info().startInstant().ifPresent(launched -> timings.put("since launch",
+                Duration.between(launched, Instant.now()).toMillis() + " ms"));
+        CompletableFuture.allOf(background.toArray(new CompletableFuture[0]))
+                .completeOnTimeout(null, TIME_BOX_MILLIS, TimeUnit.MILLISECONDS)
+                .whenComplete((ignored, error) -> {
+                    report();
+                    executor.shutdown();
+                });
+    }
+
+    private void inBackground(String name, Phase<?> phase) {
+        timings.put(name, "still running");
+        background.add(CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                phase.run();
+                timings.put(name, millisSince(start) + " ms");
+            } catch (Exception e) {
+                timings.put(name, "failed after " + millisSince(start) + " ms (" + e.getMessage() + ")");
+            }
+        }, executor));
+    }
+
+    private void report() {
+        StringJoiner line = new StringJoiner(", ", "Startup: ", "");
+        synchronized (timings) {
+            timings.forEach((name, result) -> line.add(name + " " + result));
+        }
+        System.out.println(line);
+    }
+
+    private static void warmUp() throws NoSuchAlgorithmException {
+        ClassLoader loader = StartupOrchestrator.class.getClassLoader();
+        for (String name : HOT_CLASSES) {
+            try {
+                Class.forName(name, true, loader);
+            } catch (ClassNotFoundException e) {
+                // Renamed class; warming up the rest is still worth it
+            }
+        }
+        Avatars.placeholder("LMS", 40);
+        ImageIO.getImageReadersByFormatName("jpeg").hasNext();
+        ImageIO.getImageWritersByFormatName("jpeg").hasNext();
+        MessageDigest.getInstance("SHA-256").digest(new byte[1]);
+    }
+
+    private static long millisSince(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - nanos);
+    }
+}
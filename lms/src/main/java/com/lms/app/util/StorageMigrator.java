@@ -0,0 +1,102 @@
+package com.lms.app.util;
+
+import com.lms.app.dao.StoredFileDao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StorageMigrator Utility.
+ *
+ * Purpose:
+ * - Moves files that are still stored in LONGBLOB columns into the configured
+ * `FileStore` (`storage.type=local`).
+ * - Run once after switching storage, while the application may stay online:
+ * each row is moved individually, and rows are readable from either location
+ * the whole time.
+ * - Safe to re-run; rows that already have a hash are skipped.
+ */
+public class StorageMigrator {
+
+    public static void main(String[] args) {
+        FileStore store = FileHandler.getFileStore();
+        if (store == null) {
+            System.err.println("No file store configured. Set storage.type=local and storage.root in config.properties.");
+            return;
+        }
+
+        try (Connection conn = DatabaseConnection.getInstance().getConnection()) {
+            for (BlobColumn column : BlobColumn.values()) {
+                migrateColumn(conn, store, column);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+
+    /**
+     * Moves every BLOB in one column to the store.
+     *
+     * Logic:
+     * 1. Lists ids (and sizes) of rows with data but no hash.
+     * 2. For each: streams the BLOB (one read) into the store, records the hash
+     * in `stored_files`, then sets the hash and clears the BLOB.
+     * 3. The UPDATE only matches if the row still has no hash, so a file
+     * re-uploaded meanwhile is not overwritten.
+     */
+    private static void migrateColumn(Connection conn, FileStore store, BlobColumn column) throws SQLException {
+        String listSql = "SELECT id, OCTET_LENGTH(" + column.getDataColumn() + ") AS size FROM " + column.getTable()
+                + " WHERE " + column.getDataColumn() + " IS NOT NULL AND " + column.getHashColumn() + " IS NULL";
+        String updateSql = "UPDATE " + column.getTable() + " SET " + column.getHashColumn() + " = ?, "
+                + column.getDataColumn() + " = NULL WHERE id = ? AND " + column.getHashColumn() + " IS NULL";
+
+        List<long[]> rows = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(listSql);
+                ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                rows.add(new long[] { rs.getInt("id"), rs.getLong("size") });
+            }
+        }
+        if (rows.isEmpty())
+            return;
+
+        System.out.println("Migrating " + rows.size() + " file(s) from " + column.getTable() + "."
+                + column.getDataColumn() + "...");
+        int moved = 0;
+        long bytes = 0;
+        try (PreparedStatement update = conn.prepareStatement(updateSql)) {
+            for (long[] row : rows) {
+                int id = (int) row[0];
+                long size = row[1];
+                String hash;
+                try (InputStream in = BlobInputStream.open(conn, column, id)) {
+                    if (in == null)
+                        continue; // Cleared meanwhile
+                    hash = store.put(in);
+                } catch (IOException e) {
+                    System.err.println("Could not migrate " + column.getTable() + " id " + id + ": " + e.getMessage());
+                    continue;
+                }
+                // Only now: nothing else may run on the connection while the BLOB streams
+                StoredFileDao.register(conn, hash, size);
+                update.setString(1, hash);
+                update.setInt(2, id);
+                if (update.executeUpdate() > 0) {
+                    moved++;
+                    bytes += size;
+                } else {
+                    StoredFileDao.unregister(conn, hash);
+                }
+            }
+        }
+        System.out.println("Moved " + moved + " file(s), " + FileHandler.formatSize(bytes) + ".");
+    }
+}
@@ -0,0 +1,113 @@
+package com.lms.app.util;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Thumbnails Utility.
+ *
+ * Purpose:
+ * - Shrinks course covers and profile pictures to the size they are shown at,
+ * once, when they are uploaded. Screens then load a few KB instead of a
+ * multi-megabyte photo.
+ * - Output is always JPEG; transparent areas become white.
+ */
+public class Thumbnails {
+
+    /** Longest side of a course cover thumbnail (catalog card, viewer header). */
+    public static final int COURSE_SIZE = 400;
+
+    /** Longest side of a profile picture thumbnail (sidebar, profile page). */
+    public static final int PROFILE_SIZE = 160;
+
+    /**
+     * Creates a thumbnail of an image file.
+     *
+     * @return JPEG bytes, or null if the file is not an image Java can read.
+     */
+    public static byte[] create(File file, int maxSize) throws IOException {
+        if (file == null)
+            return null;
+        try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            return create(in, maxSize);
+        }
+    }
+
+    /**
+     * Creates a thumbnail of an image held in memory (existing rows).
+     */
+    public static byte[] create(byte[] imageData, int maxSize) throws IOException {
+        if (imageData == null || imageData.length == 0)
+            return null;
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(imageData))) {
+            return create(in, maxSize);
+        }
+    }
+
+    /**
+     * Logic:
+     * 1. Reads only every n-th pixel of large images (`setSourceSubsampling`),
+     * so a 12 MP photo is never fully decoded.
+     * 2. Halves the result until it is close to `maxSize`, then scales it to
+     * the final size; halving in steps avoids the aliasing of one big step.
+     */
+    private static byte[] create(ImageInputStream in, int maxSize) throws IOException {
+        if (in == null)
+            return null;
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        if (!readers.hasNext())
+            return null;
+
+        ImageReader reader = readers.next();
+        BufferedImage image;
+        try {
+            reader.setInput(in, true, true);
+            int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+            ImageReadParam param = reader.getDefaultReadParam();
+            int step = Math.max(1, longest / (maxSize * 2));
+            param.setSourceSubsampling(step, step, 0, 0);
+            image = reader.read(0, param);
+        } finally {
+            reader.dispose();
+        }
+
+        double scale = Math.min(1.0, (double) maxSize / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        while (image.getWidth() / 2 >= width && image.getHeight() / 2 >= height) {
+            image = scale(image, image.getWidth() / 2, image.getHeight() / 2);
+        }
+        image = scale(image, width, height);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
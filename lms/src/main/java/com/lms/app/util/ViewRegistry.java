@@ -0,0 +1,109 @@
+package com.lms.app.util;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * ViewRegistry Utility.
+ *
+ * Purpose:
+ * - Parses each FXML view once per login and keeps the view and its
+ * controller alive, so switching back to a view only re-attaches it.
+ * - `preload` builds views on a background thread (allowed by JavaFX as long
+ * as they are not yet part of a shown Scene) so the first click is fast too.
+ * - Calls `Refreshable.refresh()` on every show so cached views display
+ * current data.
+ */
+public class ViewRegistry {
+
+    private static final String VIEW_PATH = "/com/lms/app/";
+
+    private final Map<String, CompletableFuture<LoadedView>> views = new ConcurrentHashMap<>();
+    private final ExecutorService preloader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "lms-view-preload");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    /**
+     * Starts building the given views in the background, one after another.
+     */
+    public void preload(List<String> fxmlFiles) {
+        for (String fxmlFile : fxmlFiles) {
+            views.computeIfAbsent(fxmlFile, f -> CompletableFuture.supplyAsync(() -> load(f), preloader));
+        }
+    }
+
+    /**
+     * Shows a view, building it now if it was neither cached nor preloaded.
+     * 
+     * @param fxmlFile  File name under `/com/lms/app/`.
+     * @param display   Attaches the view (e.g. `mainLayout::setCenter`).
+     * @param beforeShow Receives the controller before every show; may be null.
+     */
+    @SuppressWarnings("unchecked")
+    public <C> void show(String fxmlFile, Consumer<Parent> display, Consumer<C> beforeShow) {
+        CompletableFuture<LoadedView> future = views.computeIfAbsent(fxmlFile, f -> {
+            try {
+                return CompletableFuture.completedFuture(load(f));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+
+        Consumer<LoadedView> attach = view -> {
+            if (beforeShow != null)
+                beforeShow.accept((C) view.controller);
+            display.accept(view.root);
+            if (view.controller instanceof Refreshable refreshable)
+                refreshable.refresh();
+        };
+
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            attach.accept(future.join());
+            return;
+        }
+        future.whenComplete((view, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                views.remove(fxmlFile, future); // allow a retry on the next click
+                error.printStackTrace();
+                AlertHelper.showError("Error", "Could not open " + fxmlFile);
+            } else {
+                attach.accept(view);
+            }
+        }));
+    }
+
+    /**
+     * Stops preloading. The cached views are released with the registry.
+     */
+    public void shutdown() {
+        preloader.shutdownNow();
+        views.clear();
+    }
+
+    private LoadedView load(String fxmlFile) {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource(VIEW_PATH + fxmlFile));
+            Parent root = loader.load();
+            return new LoadedView(root, loader.getController());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record LoadedView(Parent root, Object controller) {
+    }
+}
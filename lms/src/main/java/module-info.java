@@ -13,6 +13,7 @@ module com.lms.app {
 
     exports com.lms.app;
     exports com.lms.app.controller;
+    exports com.lms.app.dao;
     exports com.lms.app.model;
     exports com.lms.app.util;
 }
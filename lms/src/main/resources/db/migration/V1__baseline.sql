@@ -0,0 +1,138 @@
+-- Baseline: every table as of the first versioned migration.
+-- IF NOT EXISTS makes this a no-op on databases created from schema.sql or
+-- by earlier releases; V2 adds the columns and indexes those may lack.
+-- Default users are not created here; see schema.sql.
+
+-- Files kept in the external file store (storage.type=local), by SHA-256.
+-- The *_hash columns below reference this table; the matching LONGBLOB
+-- column is NULL for those rows. Identical uploads share one row, and
+-- ref_count is the number of rows pointing at it.
+CREATE TABLE IF NOT EXISTS stored_files (
+    hash CHAR(64) PRIMARY KEY,
+    size BIGINT NOT NULL,
+    ref_count INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- Departments table (managed by admin)
+CREATE TABLE IF NOT EXISTS departments (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR(100) NOT NULL UNIQUE,
+    description TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Academic Years table (managed by admin)
+CREATE TABLE IF NOT EXISTS academic_years (
+    id INT PRIMARY KEY AUTO_INCREMENT,
+    year_name VARCHAR(20) NOT NULL UNIQUE,
+    start_date DATE,
+    end_date DATE,
+    is_active BOOLEAN DEFAULT TRUE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Bumped on every change to departments/academic_years so clients know to
+-- reload their cached copies (ReferenceDataDao)
+CREATE TABLE IF NOT EXISTS reference_data_version (
+    id TINYINT PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT IGNORE INTO reference_data_version (id, version) VALUES (1, 0);
+
+-- Insert default department
+INSERT INTO
+    departments (name, description)
+VALUES (
+        'General',
+        'Available for all students'
+    )
+ON DUPLICATE KEY UPDATE
+    name = name;
+
+-- Insert default academic years
+INSERT INTO
+    academic_years (year_name, is_active)
+VALUES ('2024-2025', TRUE),
+    ('2025-2026', FALSE)
+ON DUPLICATE KEY UPDATE
+    year_name = year_name;
+
+CREATE TABLE IF NOT EXISTS users (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    password VARCHAR(100) NOT NULL,
+    role ENUM(
+        'Admin',
+        'Instructor',
+        'Student',
+        'Locked'
+    ) NOT NULL,
+    profile_image LONGBLOB,
+    profile_image_hash CHAR(64),
+    profile_thumb MEDIUMBLOB,
+    profile_image_version INT NOT NULL DEFAULT 0,
+    department_id INT DEFAULT 1,
+    academic_year_id INT DEFAULT 1,
+    FOREIGN KEY (department_id) REFERENCES departments (id),
+    FOREIGN KEY (academic_year_id) REFERENCES academic_years (id)
+);
+
+CREATE TABLE IF NOT EXISTS courses (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    title VARCHAR(100) NOT NULL,
+    description TEXT,
+    instructor_id INT,
+    course_image LONGBLOB,
+    course_image_hash CHAR(64),
+    course_thumb MEDIUMBLOB,
+    course_image_version INT NOT NULL DEFAULT 0,
+    department_id INT DEFAULT 1,
+    academic_year_id INT DEFAULT 1,
+    FOREIGN KEY (instructor_id) REFERENCES users (id) ON DELETE CASCADE,
+    FOREIGN KEY (department_id) REFERENCES departments (id),
+    FOREIGN KEY (academic_year_id) REFERENCES academic_years (id)
+);
+
+CREATE TABLE IF NOT EXISTS modules (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    course_id INT,
+    title VARCHAR(100) NOT NULL,
+    module_data LONGBLOB,
+    module_hash CHAR(64),
+    file_type VARCHAR(10),
+    upload_date DATE,
+    FOREIGN KEY (course_id) REFERENCES courses (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS assignments (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    module_id INT,
+    description TEXT,
+    max_score INT,
+    due_date DATE,
+    assignment_data LONGBLOB,
+    assignment_hash CHAR(64),
+    file_type VARCHAR(10),
+    INDEX idx_assignments_module_due (module_id, due_date),
+    FOREIGN KEY (module_id) REFERENCES modules (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS submissions (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    assignment_id INT,
+    student_id INT,
+    submission_data LONGBLOB,
+    submission_hash CHAR(64),
+    file_type VARCHAR(10),
+    score INT DEFAULT NULL,
+    feedback_text TEXT,
+    -- Grading queue: submissions of an assignment, pending (score IS NULL) or graded
+    INDEX idx_submissions_assignment_score (assignment_id, score),
+    -- A student's own submissions (course viewer, grades)
+    INDEX idx_submissions_student_assignment (student_id, assignment_id),
+    FOREIGN KEY (assignment_id) REFERENCES assignments (id) ON DELETE CASCADE,
+    FOREIGN KEY (student_id) REFERENCES users (id) ON DELETE CASCADE
+);
@@ -0,0 +1,29 @@
+-- Per-student, per-course grade totals, kept up to date by GradebookDao in
+-- the same transaction as every change to submissions. Rebuild from the raw
+-- submissions with com.lms.app.util.GradebookRebuilder.
+CREATE TABLE IF NOT EXISTS gradebook_summary (
+    student_id INT NOT NULL,
+    course_id INT NOT NULL,
+    earned INT NOT NULL DEFAULT 0,
+    possible INT NOT NULL DEFAULT 0,
+    graded_count INT NOT NULL DEFAULT 0,
+    pending_count INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (student_id, course_id),
+    -- Standings of a course's students
+    INDEX idx_gradebook_course (course_id),
+    FOREIGN KEY (student_id) REFERENCES users (id) ON DELETE CASCADE,
+    FOREIGN KEY (course_id) REFERENCES courses (id) ON DELETE CASCADE
+);
+
+INSERT IGNORE INTO gradebook_summary (student_id, course_id, earned, possible, graded_count, pending_count)
+SELECT s.student_id, m.course_id,
+    COALESCE(SUM(s.score), 0),
+    COALESCE(SUM(IF(s.score IS NULL, 0, a.max_score)), 0),
+    COUNT(s.score),
+    SUM(s.score IS NULL)
+FROM submissions s
+JOIN assignments a ON s.assignment_id = a.id
+JOIN modules m ON a.module_id = m.id
+WHERE s.student_id IS NOT NULL
+GROUP BY s.student_id, m.course_id;
@@ -0,0 +1,12 @@
+-- Catalog cache (CatalogCache): bumped on every course insert or delete so
+-- clients know when their cached catalog pages are stale.
+CREATE TABLE IF NOT EXISTS catalog_version (
+    id TINYINT PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT IGNORE INTO catalog_version (id, version) VALUES (1, 0);
+
+-- Catalog visibility filter: department_id IN (?, 1) AND academic_year_id IN (?, 1),
+-- ordered by title. Replaces the department_id foreign key index.
+ALTER TABLE courses ADD INDEX idx_courses_catalog (department_id, academic_year_id, title);
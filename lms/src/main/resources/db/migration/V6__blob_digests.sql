@@ -0,0 +1,9 @@
+-- SHA-256 of files still kept in LONGBLOB columns, recorded by FileCache on
+-- the first download so later opens need no SHA2() over the whole BLOB.
+-- StoredFileDao.release removes a row's entry when it is deleted or replaced.
+CREATE TABLE IF NOT EXISTS blob_digests (
+    table_name VARCHAR(32) NOT NULL,
+    row_id INT NOT NULL,
+    hash CHAR(64) NOT NULL,
+    PRIMARY KEY (table_name, row_id)
+);